@@ -9,8 +9,8 @@ import org.lwjgl.input.Mouse;
 import java.lang.reflect.Method;
 import java.util.Random;
 
-public class AutoClicker {
-    private final ConfigManager configManager;
+public class AutoClicker extends Module implements TickScheduler.Task {
+    private final TickScheduler tickScheduler;
     private final Random random = new Random();
     
     private boolean leftMouseHeld = false;
@@ -18,8 +18,24 @@ public class AutoClicker {
     private double currentCPS = 0;
     private Method clickMouseMethod = null;
     
-    public AutoClicker(ConfigManager configManager) {
-        this.configManager = configManager;
+    public static class Descriptor extends ModuleDescriptor {
+        public Descriptor() {
+            super("Auto-Clicker", ModuleCategory.COMBAT, ScalarField.AUTO_CLICKER_ENABLED);
+            addSetting(new ModuleSetting("Min CPS", ScalarField.AUTO_CLICKER_MIN_CPS, 1.0, 30.0)
+                .atMost(ScalarField.AUTO_CLICKER_MAX_CPS));
+            addSetting(new ModuleSetting("Max CPS", ScalarField.AUTO_CLICKER_MAX_CPS, 1.0, 30.0)
+                .atLeast(ScalarField.AUTO_CLICKER_MIN_CPS));
+        }
+        
+        @Override
+        public Module create(ConfigManager configManager, TickScheduler tickScheduler) {
+            return new AutoClicker(configManager, tickScheduler);
+        }
+    }
+    
+    public AutoClicker(ConfigManager configManager, TickScheduler tickScheduler) {
+        super(configManager);
+        this.tickScheduler = tickScheduler;
         
         // Use reflection to access clickMouse() method
         try {
@@ -30,6 +46,19 @@ public class AutoClicker {
         }
     }
     
+    @Override
+    protected void onEnable() {
+        // Mouse events were not tracked while disabled
+        leftMouseHeld = false;
+        currentCPS = 0;
+        tickScheduler.schedule(this, TickEvent.Phase.END, TickScheduler.GUARD_IN_GAME);
+    }
+    
+    @Override
+    protected void onDisable() {
+        tickScheduler.cancel(this);
+    }
+    
     @SubscribeEvent
     public void onMouseEvent(MouseEvent event) {
         // Track left mouse button state (button 0 is left click)
@@ -38,31 +67,10 @@ public class AutoClicker {
         }
     }
     
-    @SubscribeEvent
-    public void onClientTick(TickEvent.ClientTickEvent event) {
-        if (event.phase != TickEvent.Phase.END) {
-            return;
-        }
-        
-        Minecraft mc = Minecraft.getMinecraft();
-        if (mc == null || mc.theWorld == null || mc.thePlayer == null) {
-            return;
-        }
-        
-        // Only work when in-game and window is focused
-        if (!mc.inGameHasFocus) {
-            return;
-        }
-        
-        // Check if auto-clicker is enabled
-        if (!configManager.getConfig().autoClickerEnabled) {
-            return;
-        }
-        
-        // Don't click if a GUI is open
-        if (mc.currentScreen != null) {
-            return;
-        }
+    @Override
+    public void onTick(Minecraft mc) {
+        // World, focus and open-screen checks are done by the scheduler (GUARD_IN_GAME)
+        ConfigSnapshot config = configManager.getSnapshot();
         
         // Check if left mouse button is held down
         // Also check LWJGL Mouse directly as a fallback
@@ -75,8 +83,8 @@ public class AutoClicker {
         long currentTime = System.currentTimeMillis();
         
         // Get CPS range from config
-        double minCPS = configManager.getConfig().autoClickerMinCPS;
-        double maxCPS = configManager.getConfig().autoClickerMaxCPS;
+        double minCPS = config.autoClickerMinCPS;
+        double maxCPS = config.autoClickerMaxCPS;
         
         // Calculate variable CPS (randomize between min-max from config)
         if (currentCPS == 0 || random.nextDouble() < 0.1) {
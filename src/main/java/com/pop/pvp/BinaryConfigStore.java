@@ -0,0 +1,148 @@
+package com.pop.pvp;
+
+import net.minecraftforge.fml.common.FMLLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Memory-mapped binary copy of the config with a fixed layout (popular.bin).
+ * Every field lives at a stable offset, so changing one slider value is a single
+ * 4 or 8 byte write into the mapped buffer and startup reads fields without parsing.
+ *
+ * popular.json stays the import/export format. The header remembers the timestamp
+ * of the last JSON export; if popular.json was edited by hand since, it is imported again.
+ */
+public class BinaryConfigStore {
+    private static final int MAGIC = 0x504F5043; // "POPC"
+    private static final int LAYOUT_VERSION = 4; // Bump whenever offsets change
+
+    // Header
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_JSON_STAMP = 8;         // long: popular.json mtime at last export
+    private static final int OFF_SAVED_SEQUENCE = 16;    // int: bumped on every committed change
+    private static final int OFF_EXPORTED_SEQUENCE = 20; // int: sequence of the last JSON export
+
+    // Fields start at 24; each ConfigField holds its own offset, and the profile name comes last
+    private static final int SIZE = ConfigField.PROFILE.offset() + ConfigField.PROFILE_BYTES;
+
+    private final File file;
+    private MappedByteBuffer buffer;
+    private boolean valid;
+
+    public BinaryConfigStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Maps the store, creating it if needed.
+     *
+     * @return true if the file already held a complete snapshot with the current layout
+     */
+    public boolean open() {
+        RandomAccessFile raf = null;
+        try {
+            file.getParentFile().mkdirs();
+            raf = new RandomAccessFile(file, "rw");
+            boolean complete = raf.length() == SIZE;
+            if (!complete) {
+                raf.setLength(SIZE);
+            }
+
+            // The mapping stays valid after the channel is closed
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+            valid = complete && buffer.getInt(OFF_MAGIC) == MAGIC && buffer.getInt(OFF_VERSION) == LAYOUT_VERSION;
+            return valid;
+        } catch (IOException e) {
+            FMLLog.warning("[Popular] Binary config store unavailable, using JSON only: " + e.getMessage());
+            buffer = null;
+            return false;
+        } finally {
+            if (raf != null) {
+                try {
+                    raf.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    public boolean isOpen() {
+        return buffer != null;
+    }
+
+    /**
+     * Reads the mapped snapshot. Only meaningful if {@link #open()} returned true.
+     */
+    public ConfigManager.ModConfig read() {
+        ConfigManager.ModConfig config = new ConfigManager.ModConfig();
+        for (int i = 0; i < ConfigField.COUNT; i++) {
+            ConfigField.byOrdinal(i).read(buffer, config);
+        }
+        return config;
+    }
+
+    /**
+     * Writes the fields of current set in the changed mask.
+     * Pass {@link ConfigField#ALL} to write everything (import or first save).
+     *
+     * @param changed Bit mask of {@link ConfigField#mask()} values
+     */
+    public void write(ConfigManager.ModConfig current, long changed, int sequence) {
+        if (buffer == null) return;
+
+        for (int i = 0; i < ConfigField.COUNT; i++) {
+            if ((changed & (1L << i)) != 0) {
+                ConfigField.byOrdinal(i).write(buffer, current);
+            }
+        }
+
+        buffer.putInt(OFF_SAVED_SEQUENCE, sequence);
+
+        if (!valid) {
+            // Header last, so a half-written store is never mistaken for a complete one
+            buffer.putInt(OFF_VERSION, LAYOUT_VERSION);
+            buffer.putInt(OFF_MAGIC, MAGIC);
+            valid = true;
+        }
+    }
+
+    /**
+     * Records that the JSON export for the given sequence is on disk.
+     * Called from the config writer thread.
+     */
+    public void markExported(int sequence, long jsonStamp) {
+        if (buffer == null) return;
+        buffer.putLong(OFF_JSON_STAMP, jsonStamp);
+        buffer.putInt(OFF_EXPORTED_SEQUENCE, sequence);
+    }
+
+    public long getJsonStamp() {
+        return buffer.getLong(OFF_JSON_STAMP);
+    }
+
+    public int getSavedSequence() {
+        return buffer.getInt(OFF_SAVED_SEQUENCE);
+    }
+
+    /**
+     * True if the last committed change has not reached popular.json yet.
+     */
+    public boolean isExportPending() {
+        return buffer.getInt(OFF_SAVED_SEQUENCE) != buffer.getInt(OFF_EXPORTED_SEQUENCE);
+    }
+
+    /**
+     * Forces mapped changes to disk. Called on shutdown.
+     */
+    public void force() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+}
@@ -1,34 +1,180 @@
 package com.pop.pvp;
 
+import com.pop.pvp.ui.RenderState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.Tessellator;
 import net.minecraft.client.renderer.WorldRenderer;
-import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
-import net.minecraft.tileentity.TileEntityChest;
-import net.minecraft.util.BlockPos;
+import net.minecraft.client.renderer.culling.ClippingHelperImpl;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.util.MathHelper;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
 import net.minecraftforge.client.event.RenderWorldLastEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import org.lwjgl.opengl.GL11;
 
 /**
  * Chest ESP mod that highlights chests through walls.
+ * Chest positions come from a {@link ChestIndex} kept while the module is enabled.
+ *
+ * Why: Every visible box goes into one POSITION_COLOR buffer with the colour per vertex,
+ * so a frame is a single draw call however many chests are in range. Outline mode draws
+ * only the edges, which costs far less fill rate where chests are packed together.
+ *
+ * The chests in range are kept in a {@link ChestMesh}, relative to the block the camera is in,
+ * and rebuilt only when the camera enters another block or the chests or settings change.
+ * A frame is one translate and one draw of the chunk sections inside the view frustum; boxes
+ * behind the camera cost no vertex work. Drawn and culled counts are shown on the F3 screen.
  */
-public class ChestESP {
-    private final ConfigManager configManager;
+public class ChestESP extends Module {
+    private static final int FILL_ALPHA = 77;     // 0.3
+    private static final int OUTLINE_ALPHA = 204; // 0.8, lines are thin
+    private static final float OUTLINE_WIDTH = 2.0F;
+    private static final double BOX_MARGIN = 0.01; // Boxes are slightly larger than the block for visibility
+    
+    // Box colour, range and style, refreshed only when one of their fields changes
+    private int red;
+    private int green;
+    private int blue;
+    private int range;
+    private boolean outline;
+    
+    private final ChestIndex chestIndex = new ChestIndex();
+    private final ChestMesh mesh = new ChestMesh();
+    // Our own clipping planes; vanilla's shared ClippingHelperImpl instance is left alone
+    private final ClippingHelperImpl clippingHelper = new ClippingHelperImpl();
+    private final Frustum frustum = new Frustum(clippingHelper);
+    
+    // What the mesh was built from
+    private boolean meshValid;
+    private int meshVersion;
+    private int anchorX;
+    private int anchorY;
+    private int anchorZ;
+    
+    // Build state for the visitor, which is reused to avoid an allocation per rebuild
+    private WorldRenderer renderer;
+    private final ChestIndex.Visitor addChest = new ChestIndex.Visitor() {
+        @Override
+        public void beginSection(int chunkX, int sectionY, int chunkZ) {
+            mesh.beginSection();
+        }
+        
+        @Override
+        public void visit(int x, int y, int z) {
+            int relX = x - anchorX;
+            int relY = y - anchorY;
+            int relZ = z - anchorZ;
+            // The camera can be anywhere in the anchor block until the next rebuild, so a chest is
+            // drawn only if it is within range from all of it, never one just past the range
+            int farX = Math.max(Math.abs(relX), Math.abs(relX - 1));
+            int farY = Math.max(Math.abs(relY), Math.abs(relY - 1));
+            int farZ = Math.max(Math.abs(relZ), Math.abs(relZ - 1));
+            if (farX * farX + farY * farY + farZ * farZ > range * range) {
+                return;
+            }
+            if (outline) {
+                addOutline(renderer, relX, relY, relZ);
+            } else {
+                addBox(renderer, relX, relY, relZ);
+            }
+            mesh.includeBox(relX - BOX_MARGIN, relY - BOX_MARGIN, relZ - BOX_MARGIN,
+                relX + 1 + BOX_MARGIN, relY + 1 + BOX_MARGIN, relZ + 1 + BOX_MARGIN);
+        }
+    };
+    
+    public static class Descriptor extends ModuleDescriptor {
+        public Descriptor() {
+            super("Chest ESP", ModuleCategory.RENDER, ScalarField.CHEST_ESP_ENABLED);
+            addSetting(new ModuleSetting("Red", ScalarField.CHEST_ESP_RED, 0.0, 255.0));
+            addSetting(new ModuleSetting("Green", ScalarField.CHEST_ESP_GREEN, 0.0, 255.0));
+            addSetting(new ModuleSetting("Blue", ScalarField.CHEST_ESP_BLUE, 0.0, 255.0));
+            addSetting(new ModuleSetting("Range", ScalarField.CHEST_ESP_RANGE, 16.0, 256.0));
+            addSetting(new ModuleSetting("Outline", ScalarField.CHEST_ESP_OUTLINE));
+        }
+        
+        @Override
+        public Module create(ConfigManager configManager, TickScheduler tickScheduler) {
+            return new ChestESP(configManager);
+        }
+    }
     
     public ChestESP(ConfigManager configManager) {
-        this.configManager = configManager;
+        super(configManager);
+        updateSettings(configManager.getSnapshot());
+        
+        configManager.addListener(new ConfigListener() {
+            @Override
+            public void onConfigChanged(ConfigField field, ConfigSnapshot snapshot) {
+                updateSettings(snapshot);
+            }
+        }, ConfigField.CHEST_ESP_RED, ConfigField.CHEST_ESP_GREEN, ConfigField.CHEST_ESP_BLUE, ConfigField.CHEST_ESP_RANGE,
+            ConfigField.CHEST_ESP_OUTLINE);
+    }
+    
+    private void updateSettings(ConfigSnapshot snapshot) {
+        if (red != snapshot.chestESPRed || green != snapshot.chestESPGreen || blue != snapshot.chestESPBlue
+                || range != snapshot.chestESPRange || outline != snapshot.chestESPOutline) {
+            meshValid = false;
+        }
+        red = snapshot.chestESPRed;
+        green = snapshot.chestESPGreen;
+        blue = snapshot.chestESPBlue;
+        range = snapshot.chestESPRange;
+        outline = snapshot.chestESPOutline;
+    }
+    
+    @Override
+    protected void onEnable() {
+        Minecraft mc = Minecraft.getMinecraft();
+        if (mc.theWorld != null) {
+            chestIndex.attach(mc.theWorld);
+            if (mc.thePlayer != null) {
+                // Enabled mid-game: pick up the chests already loaded
+                chestIndex.scanLoadedChunks(MathHelper.floor_double(mc.thePlayer.posX) >> 4,
+                    MathHelper.floor_double(mc.thePlayer.posZ) >> 4);
+            }
+        }
+    }
+    
+    @Override
+    protected void onDisable() {
+        chestIndex.detach();
+        mesh.delete();
+        meshValid = false;
+    }
+    
+    @SubscribeEvent
+    public void onWorldLoad(WorldEvent.Load event) {
+        if (event.world.isRemote) {
+            chestIndex.attach(event.world);
+        }
+    }
+    
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        if (event.world == chestIndex.getWorld()) {
+            chestIndex.detach();
+        }
+    }
+    
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.world == chestIndex.getWorld()) {
+            chestIndex.onChunkUnload(event.getChunk());
+        }
     }
     
     @SubscribeEvent
     public void onRenderWorldLast(RenderWorldLastEvent event) {
-        if (!configManager.getConfig().chestESPEnabled) {
+        Minecraft mc = Minecraft.getMinecraft();
+        if (mc == null || mc.theWorld == null || mc.thePlayer == null) {
             return;
         }
         
-        Minecraft mc = Minecraft.getMinecraft();
-        if (mc == null || mc.theWorld == null || mc.thePlayer == null) {
+        if (mc.theWorld != chestIndex.getWorld() || chestIndex.size() == 0) {
             return;
         }
         
@@ -37,114 +183,164 @@ public class ChestESP {
         double playerY = mc.thePlayer.lastTickPosY + (mc.thePlayer.posY - mc.thePlayer.lastTickPosY) * event.partialTicks;
         double playerZ = mc.thePlayer.lastTickPosZ + (mc.thePlayer.posZ - mc.thePlayer.lastTickPosZ) * event.partialTicks;
         
-        // Get chest ESP color from config
-        int espColor = configManager.getChestESPColor();
-        float red = ((espColor >> 16) & 255) / 255.0F;
-        float green = ((espColor >> 8) & 255) / 255.0F;
-        float blue = (espColor & 255) / 255.0F;
-        
-        // Setup OpenGL
+        // Setup OpenGL, remembering the state we were called with
         GlStateManager.pushMatrix();
-        GlStateManager.disableTexture2D();
-        GlStateManager.enableBlend();
-        GlStateManager.disableAlpha();
-        GlStateManager.tryBlendFuncSeparate(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA, 1, 0);
-        GlStateManager.disableDepth();
-        GlStateManager.disableLighting();
-        GlStateManager.disableCull();
-        
-        // Optimized: Use TileEntity list instead of checking every block
-        // This is MUCH more efficient - only iterates through existing tile entities
-        // Instead of checking 2+ million blocks, we only check loaded chests
-        int renderRange = 64;
-        double renderRangeSq = renderRange * renderRange;
-        
-        // Get all tile entities and filter for chests
-        for (Object obj : mc.theWorld.loadedTileEntityList) {
-            if (obj instanceof TileEntityChest) {
-                TileEntityChest chest = (TileEntityChest) obj;
-                BlockPos pos = chest.getPos();
-                
-                // Check distance (squared for efficiency - no sqrt needed)
-                double dx = pos.getX() - playerX;
-                double dy = pos.getY() - playerY;
-                double dz = pos.getZ() - playerZ;
-                double distSq = dx * dx + dy * dy + dz * dz;
-                
-                if (distSq <= renderRangeSq) {
-                    // Draw box around chest
-                    drawBox(pos, playerX, playerY, playerZ, red, green, blue, 0.3F);
-                }
-            }
+        RenderState.push();
+        RenderState.set(RenderState.BLEND,
+            RenderState.TEXTURE_2D | RenderState.ALPHA | RenderState.DEPTH | RenderState.LIGHTING | RenderState.CULL);
+        RenderState.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA, GL11.GL_ONE, GL11.GL_ZERO);
+        
+        if (outline) {
+            GL11.glLineWidth(OUTLINE_WIDTH);
+        }
+        
+        int blockX = MathHelper.floor_double(playerX);
+        int blockY = MathHelper.floor_double(playerY);
+        int blockZ = MathHelper.floor_double(playerZ);
+        if (!meshValid || meshVersion != chestIndex.getVersion() || mesh.isStorageStale()
+                || blockX != anchorX || blockY != anchorY || blockZ != anchorZ) {
+            rebuildMesh(blockX, blockY, blockZ);
+        }
+        double dx = playerX - anchorX;
+        double dy = playerY - anchorY;
+        double dz = playerZ - anchorZ;
+        
+        // Clipping planes from the camera matrices, taken before the translate
+        clippingHelper.init();
+        frustum.setPosition(dx, dy, dz); // Camera in mesh coordinates
+        
+        GlStateManager.translate(-dx, -dy, -dz);
+        mesh.draw(frustum);
+        
+        if (outline) {
+            GL11.glLineWidth(1.0F);
         }
         
         // Restore OpenGL state
-        GlStateManager.enableDepth();
-        GlStateManager.enableTexture2D();
-        GlStateManager.disableBlend();
-        GlStateManager.enableAlpha();
-        GlStateManager.enableLighting();
-        GlStateManager.enableCull();
+        RenderState.pop();
         GlStateManager.popMatrix();
     }
     
-    private void drawBox(BlockPos pos, double playerX, double playerY, double playerZ, 
-                        float red, float green, float blue, float alpha) {
-        double x = pos.getX() - playerX;
-        double y = pos.getY() - playerY;
-        double z = pos.getZ() - playerZ;
-        
-        // Chest bounding box (slightly larger than block for visibility)
-        double minX = x - 0.01;
-        double minY = y - 0.01;
-        double minZ = z - 0.01;
-        double maxX = x + 1.01;
-        double maxY = y + 1.01;
-        double maxZ = z + 1.01;
+    @SubscribeEvent
+    public void onDebugText(RenderGameOverlayEvent.Text event) {
+        Minecraft mc = Minecraft.getMinecraft();
+        if (!mc.gameSettings.showDebugInfo) {
+            return;
+        }
+        int drawn = chestIndex.size() == 0 ? 0 : mesh.getDrawnCount();
+        int culled = chestIndex.size() == 0 ? 0 : mesh.getCulledCount();
+        event.left.add("Chest ESP: " + drawn + " drawn, " + culled + " culled, " + chestIndex.size() + " indexed");
+    }
+    
+    /**
+     * Puts the chests within range of the camera's block into the mesh, relative to that block.
+     */
+    private void rebuildMesh(int blockX, int blockY, int blockZ) {
+        anchorX = blockX;
+        anchorY = blockY;
+        anchorZ = blockZ;
         
-        GlStateManager.color(red, green, blue, alpha);
+        // All boxes in one buffer and one draw. The query from the block centre finds every chest
+        // the visitor can accept; the visitor drops the ones not in range from the whole block.
+        renderer = Tessellator.getInstance().getWorldRenderer();
+        mesh.begin(renderer, outline ? GL11.GL_LINES : GL11.GL_QUADS);
+        chestIndex.forEachInRange(blockX + 0.5, blockY + 0.5, blockZ + 0.5, range, addChest);
+        mesh.end();
+        renderer = null;
         
-        Tessellator tessellator = Tessellator.getInstance();
-        WorldRenderer renderer = tessellator.getWorldRenderer();
-        renderer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION);
+        meshVersion = chestIndex.getVersion();
+        meshValid = true;
+    }
+    
+    /**
+     * Adds the six faces of a chest box as quads.
+     */
+    private void addBox(WorldRenderer renderer, double x, double y, double z) {
+        double minX = x - BOX_MARGIN;
+        double minY = y - BOX_MARGIN;
+        double minZ = z - BOX_MARGIN;
+        double maxX = x + 1 + BOX_MARGIN;
+        double maxY = y + 1 + BOX_MARGIN;
+        double maxZ = z + 1 + BOX_MARGIN;
+        int a = FILL_ALPHA;
         
         // Bottom face
-        renderer.pos(minX, minY, minZ).endVertex();
-        renderer.pos(maxX, minY, minZ).endVertex();
-        renderer.pos(maxX, minY, maxZ).endVertex();
-        renderer.pos(minX, minY, maxZ).endVertex();
+        renderer.pos(minX, minY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, minY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, minY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, minY, maxZ).color(red, green, blue, a).endVertex();
         
         // Top face
-        renderer.pos(minX, maxY, minZ).endVertex();
-        renderer.pos(minX, maxY, maxZ).endVertex();
-        renderer.pos(maxX, maxY, maxZ).endVertex();
-        renderer.pos(maxX, maxY, minZ).endVertex();
+        renderer.pos(minX, maxY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, maxY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, maxY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, maxY, minZ).color(red, green, blue, a).endVertex();
         
         // North face
-        renderer.pos(minX, minY, minZ).endVertex();
-        renderer.pos(minX, maxY, minZ).endVertex();
-        renderer.pos(maxX, maxY, minZ).endVertex();
-        renderer.pos(maxX, minY, minZ).endVertex();
+        renderer.pos(minX, minY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, maxY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, maxY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, minY, minZ).color(red, green, blue, a).endVertex();
         
         // South face
-        renderer.pos(minX, minY, maxZ).endVertex();
-        renderer.pos(maxX, minY, maxZ).endVertex();
-        renderer.pos(maxX, maxY, maxZ).endVertex();
-        renderer.pos(minX, maxY, maxZ).endVertex();
+        renderer.pos(minX, minY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, minY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, maxY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, maxY, maxZ).color(red, green, blue, a).endVertex();
         
         // West face
-        renderer.pos(minX, minY, minZ).endVertex();
-        renderer.pos(minX, minY, maxZ).endVertex();
-        renderer.pos(minX, maxY, maxZ).endVertex();
-        renderer.pos(minX, maxY, minZ).endVertex();
+        renderer.pos(minX, minY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, minY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, maxY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, maxY, minZ).color(red, green, blue, a).endVertex();
         
         // East face
-        renderer.pos(maxX, minY, minZ).endVertex();
-        renderer.pos(maxX, maxY, minZ).endVertex();
-        renderer.pos(maxX, maxY, maxZ).endVertex();
-        renderer.pos(maxX, minY, maxZ).endVertex();
+        renderer.pos(maxX, minY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, maxY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, maxY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, minY, maxZ).color(red, green, blue, a).endVertex();
+    }
+    
+    /**
+     * Adds the twelve edges of a chest box as line segments.
+     */
+    private void addOutline(WorldRenderer renderer, double x, double y, double z) {
+        double minX = x - BOX_MARGIN;
+        double minY = y - BOX_MARGIN;
+        double minZ = z - BOX_MARGIN;
+        double maxX = x + 1 + BOX_MARGIN;
+        double maxY = y + 1 + BOX_MARGIN;
+        double maxZ = z + 1 + BOX_MARGIN;
+        int a = OUTLINE_ALPHA;
+        
+        // Bottom edges
+        renderer.pos(minX, minY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, minY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, minY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, minY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, minY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, minY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, minY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, minY, minZ).color(red, green, blue, a).endVertex();
         
-        tessellator.draw();
+        // Top edges
+        renderer.pos(minX, maxY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, maxY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, maxY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, maxY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, maxY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, maxY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, maxY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, maxY, minZ).color(red, green, blue, a).endVertex();
+        
+        // Vertical edges
+        renderer.pos(minX, minY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, maxY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, minY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, maxY, minZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, minY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(maxX, maxY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, minY, maxZ).color(red, green, blue, a).endVertex();
+        renderer.pos(minX, maxY, maxZ).color(red, green, blue, a).endVertex();
     }
 }
-
@@ -0,0 +1,384 @@
+package com.pop.pvp;
+
+import net.minecraft.block.Block;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.IWorldAccess;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Positions of every chest and trapped chest in the loaded chunks of one world,
+ * bucketed by chunk section: a {@link LongHashMap} of chunk columns, each holding
+ * up to 16 sections with the chests inside them.
+ *
+ * Kept current from the world itself rather than by polling: as an {@link IWorldAccess}
+ * it sees each chunk's data arrive (as a full-chunk render update) and each block change,
+ * and the owner forwards chunk unloads. Attach it to a world to start, detach to stop;
+ * detaching or switching worlds clears it.
+ *
+ * Why: Finding chests by walking loadedTileEntityList with instanceof costs every
+ * tile entity in the world every frame. A range query here only looks at the columns
+ * and sections that touch the query sphere, so chests outside it cost nothing.
+ *
+ * Client thread only.
+ */
+public class ChestIndex implements IWorldAccess {
+    private static final int CHEST_ID = Block.getIdFromBlock(Blocks.chest);
+    private static final int TRAPPED_CHEST_ID = Block.getIdFromBlock(Blocks.trapped_chest);
+    private static final int ATTACH_SCAN_RADIUS = 32; // Chunks around the player checked when attaching mid-game
+    
+    private LongHashMap<Column> columns = new LongHashMap<Column>(); // ChunkCoordIntPair.chunkXZ2Int -> Column
+    private World world;
+    private int chestCount;
+    private int version; // Bumped whenever the set of chests changes
+    
+    /**
+     * Receives the chests found by {@link #forEachInRange}, grouped by section.
+     */
+    public interface Visitor {
+        /**
+         * Called before the chests of each section that intersects the range.
+         */
+        void beginSection(int chunkX, int sectionY, int chunkZ);
+        
+        void visit(int x, int y, int z);
+    }
+    
+    private static final class Column {
+        final Section[] sections = new Section[16];
+        int count;
+    }
+    
+    private static final class Section {
+        short[] blocks = new short[4]; // y << 8 | z << 4 | x within the section
+        int count;
+        
+        boolean add(int index) {
+            for (int i = 0; i < count; i++) {
+                if (blocks[i] == index) {
+                    return false;
+                }
+            }
+            if (count == blocks.length) {
+                short[] grown = new short[count * 2];
+                System.arraycopy(blocks, 0, grown, 0, count);
+                blocks = grown;
+            }
+            blocks[count++] = (short)index;
+            return true;
+        }
+        
+        boolean remove(int index) {
+            for (int i = 0; i < count; i++) {
+                if (blocks[i] == index) {
+                    blocks[i] = blocks[--count];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * Starts tracking a world. Chunks it already has are not indexed; see {@link #scanLoadedChunks}.
+     */
+    public void attach(World world) {
+        detach();
+        this.world = world;
+        world.addWorldAccess(this);
+    }
+    
+    /**
+     * Indexes the chunks already loaded around a chunk, for attaching to a world in progress.
+     */
+    public void scanLoadedChunks(int centerChunkX, int centerChunkZ) {
+        for (int cx = centerChunkX - ATTACH_SCAN_RADIUS; cx <= centerChunkX + ATTACH_SCAN_RADIUS; cx++) {
+            for (int cz = centerChunkZ - ATTACH_SCAN_RADIUS; cz <= centerChunkZ + ATTACH_SCAN_RADIUS; cz++) {
+                Chunk chunk = world.getChunkFromChunkCoords(cx, cz);
+                if (!chunk.isEmpty()) {
+                    scanChunk(chunk);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Stops tracking and forgets every position.
+     */
+    public void detach() {
+        if (world != null) {
+            world.removeWorldAccess(this);
+            world = null;
+        }
+        // LongHashMap has no clear()
+        columns = new LongHashMap<Column>();
+        chestCount = 0;
+        version++;
+    }
+    
+    public World getWorld() {
+        return world;
+    }
+    
+    /**
+     * Changes whenever a chest is added or removed, so callers can tell when anything they built from the index is stale.
+     */
+    public int getVersion() {
+        return version;
+    }
+    
+    /**
+     * Number of chests indexed.
+     */
+    public int size() {
+        return chestCount;
+    }
+    
+    /**
+     * Visits every chest whose block corner lies within {@code range} of the given point.
+     * Columns and sections outside the sphere are rejected whole, and chests in sections
+     * entirely inside it are visited without a distance check.
+     *
+     * @return Number of chests visited
+     */
+    public int forEachInRange(double x, double y, double z, double range, Visitor visitor) {
+        if (chestCount == 0) {
+            return 0;
+        }
+        double rangeSq = range * range;
+        int minChunkX = MathHelper.floor_double(x - range) >> 4;
+        int maxChunkX = MathHelper.floor_double(x + range) >> 4;
+        int minChunkZ = MathHelper.floor_double(z - range) >> 4;
+        int maxChunkZ = MathHelper.floor_double(z + range) >> 4;
+        int minSection = Math.max(0, MathHelper.floor_double(y - range) >> 4);
+        int maxSection = Math.min(15, MathHelper.floor_double(y + range) >> 4);
+        
+        int visited = 0;
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            int baseX = cx << 4;
+            double nearX = axisDistance(x, baseX);
+            double farX = Math.max(Math.abs(x - baseX), Math.abs(x - baseX - 16));
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                int baseZ = cz << 4;
+                double nearZ = axisDistance(z, baseZ);
+                double nearSq = nearX * nearX + nearZ * nearZ;
+                if (nearSq > rangeSq) {
+                    continue;
+                }
+                Column column = columns.getValueByKey(ChunkCoordIntPair.chunkXZ2Int(cx, cz));
+                if (column == null) {
+                    continue;
+                }
+                double farZ = Math.max(Math.abs(z - baseZ), Math.abs(z - baseZ - 16));
+                double farSq = farX * farX + farZ * farZ;
+                
+                for (int sy = minSection; sy <= maxSection; sy++) {
+                    Section section = column.sections[sy];
+                    if (section == null) {
+                        continue;
+                    }
+                    int baseY = sy << 4;
+                    double nearY = axisDistance(y, baseY);
+                    if (nearSq + nearY * nearY > rangeSq) {
+                        continue;
+                    }
+                    double farY = Math.max(Math.abs(y - baseY), Math.abs(y - baseY - 16));
+                    boolean inside = farSq + farY * farY <= rangeSq;
+                    visitor.beginSection(cx, sy, cz);
+                    
+                    short[] blocks = section.blocks;
+                    for (int i = 0; i < section.count; i++) {
+                        int index = blocks[i];
+                        int bx = baseX + (index & 15);
+                        int by = baseY + (index >> 8);
+                        int bz = baseZ + (index >> 4 & 15);
+                        if (!inside) {
+                            double dx = bx - x;
+                            double dy = by - y;
+                            double dz = bz - z;
+                            if (dx * dx + dy * dy + dz * dz > rangeSq) {
+                                continue;
+                            }
+                        }
+                        visitor.visit(bx, by, bz);
+                        visited++;
+                    }
+                }
+            }
+        }
+        return visited;
+    }
+    
+    /**
+     * Distance along one axis from a point to the 16-block span starting at {@code base}, 0 inside it.
+     */
+    private static double axisDistance(double value, int base) {
+        if (value < base) {
+            return base - value;
+        }
+        if (value > base + 16) {
+            return value - base - 16;
+        }
+        return 0.0;
+    }
+    
+    /**
+     * Forgets the chests of an unloaded chunk.
+     */
+    public void onChunkUnload(Chunk chunk) {
+        removeChunk(chunk.xPosition, chunk.zPosition);
+    }
+    
+    private void removeChunk(int chunkX, int chunkZ) {
+        Column column = columns.remove(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+        if (column != null) {
+            chestCount -= column.count;
+            version++;
+        }
+    }
+    
+    private void add(int x, int y, int z) {
+        long key = ChunkCoordIntPair.chunkXZ2Int(x >> 4, z >> 4);
+        Column column = columns.getValueByKey(key);
+        if (column == null) {
+            column = new Column();
+            columns.add(key, column);
+        }
+        Section section = column.sections[y >> 4];
+        if (section == null) {
+            section = new Section();
+            column.sections[y >> 4] = section;
+        }
+        if (section.add((y & 15) << 8 | (z & 15) << 4 | x & 15)) {
+            column.count++;
+            chestCount++;
+            version++;
+        }
+    }
+    
+    private void remove(int x, int y, int z) {
+        long key = ChunkCoordIntPair.chunkXZ2Int(x >> 4, z >> 4);
+        Column column = columns.getValueByKey(key);
+        if (column == null) {
+            return;
+        }
+        Section section = column.sections[y >> 4];
+        if (section != null && section.remove((y & 15) << 8 | (z & 15) << 4 | x & 15)) {
+            column.count--;
+            chestCount--;
+            version++;
+            if (section.count == 0) {
+                column.sections[y >> 4] = null;
+            }
+            if (column.count == 0) {
+                columns.remove(key);
+            }
+        }
+    }
+    
+    /**
+     * Adds every chest in a chunk by reading its block storage directly;
+     * chest tile entities don't exist yet when the chunk data arrives.
+     */
+    private void scanChunk(Chunk chunk) {
+        int baseX = chunk.xPosition << 4;
+        int baseZ = chunk.zPosition << 4;
+        for (ExtendedBlockStorage storage : chunk.getBlockStorageArray()) {
+            if (storage == null || storage.isEmpty()) {
+                continue;
+            }
+            char[] data = storage.getData(); // Block id << 4 | metadata, indexed y << 8 | z << 4 | x
+            int baseY = storage.getYLocation();
+            for (int i = 0; i < data.length; i++) {
+                int id = data[i] >> 4;
+                if (id == CHEST_ID || id == TRAPPED_CHEST_ID) {
+                    add(baseX + (i & 15), baseY + (i >> 8), baseZ + (i >> 4 & 15));
+                }
+            }
+        }
+    }
+    
+    private static boolean isChest(Block block) {
+        return block == Blocks.chest || block == Blocks.trapped_chest;
+    }
+    
+    // IWorldAccess
+    
+    @Override
+    public void markBlockForUpdate(BlockPos pos) {
+        // Any block change, including a chest placed or broken
+        if (pos.getY() < 0 || pos.getY() > 255) {
+            return;
+        }
+        if (isChest(world.getBlockState(pos).getBlock())) {
+            add(pos.getX(), pos.getY(), pos.getZ());
+        } else {
+            remove(pos.getX(), pos.getY(), pos.getZ());
+        }
+    }
+    
+    @Override
+    public void markBlockRangeForRenderUpdate(int x1, int y1, int z1, int x2, int y2, int z2) {
+        // Chunk data arrives as a render update of the whole column; smaller ranges are lighting
+        if (x2 - x1 < 15 || z2 - z1 < 15) {
+            return;
+        }
+        for (int cx = x1 >> 4; cx <= x2 >> 4; cx++) {
+            for (int cz = z1 >> 4; cz <= z2 >> 4; cz++) {
+                Chunk chunk = world.getChunkFromChunkCoords(cx, cz);
+                removeChunk(cx, cz);
+                if (!chunk.isEmpty()) {
+                    scanChunk(chunk);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void notifyLightSet(BlockPos pos) {
+    }
+    
+    @Override
+    public void playSound(String soundName, double x, double y, double z, float volume, float pitch) {
+    }
+    
+    @Override
+    public void playSoundToNearExcept(EntityPlayer except, String soundName, double x, double y, double z, float volume, float pitch) {
+    }
+    
+    @Override
+    public void spawnParticle(int particleID, boolean ignoreRange, double xCoord, double yCoord, double zCoord,
+                              double xOffset, double yOffset, double zOffset, int... parameters) {
+    }
+    
+    @Override
+    public void onEntityAdded(Entity entityIn) {
+    }
+    
+    @Override
+    public void onEntityRemoved(Entity entityIn) {
+    }
+    
+    @Override
+    public void playRecord(String recordName, BlockPos blockPosIn) {
+    }
+    
+    @Override
+    public void broadcastSound(int soundID, BlockPos pos, int data) {
+    }
+    
+    @Override
+    public void playAuxSFX(EntityPlayer player, int sfxType, BlockPos blockPosIn, int data) {
+    }
+    
+    @Override
+    public void sendBlockBreakProgress(int breakerId, BlockPos pos, int progress) {
+    }
+}
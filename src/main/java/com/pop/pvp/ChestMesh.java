@@ -0,0 +1,260 @@
+package com.pop.pvp;
+
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.client.renderer.WorldVertexBufferUploader;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.renderer.vertex.VertexBuffer;
+import org.lwjgl.opengl.GL11;
+
+/**
+ * Uploaded POSITION_COLOR box geometry that is drawn many times and rebuilt rarely.
+ * Lives in a vertex buffer object when {@link OpenGlHelper#useVbo()} is on,
+ * otherwise in display lists, as vanilla chunk rendering does.
+ *
+ * Geometry is split into sections, each with the bounds of its boxes, so a draw only
+ * submits the sections inside the view frustum. In a VBO a section is a vertex range and
+ * adjacent visible ranges go out as one draw; without VBOs each section is its own list.
+ *
+ * Render thread only. Call {@link #delete()} when the geometry is no longer needed.
+ */
+public class ChestMesh {
+    private static final int STRIDE = 16; // 3 floats position + 4 bytes colour
+    private static final int COLOR_OFFSET = 12;
+    
+    private static final WorldVertexBufferUploader LIST_UPLOADER = new WorldVertexBufferUploader();
+    
+    private int mode;
+    private boolean vbo;
+    private VertexBuffer vertexBuffer;
+    private int[] displayLists = new int[0]; // Allocated lists, reused across rebuilds
+    
+    // Per section: vertex range, box count and bounds (minX, minY, minZ, maxX, maxY, maxZ)
+    private int sectionCount;
+    private int[] firstVertex = new int[16];
+    private int[] vertexCounts = new int[16];
+    private int[] boxCounts = new int[16];
+    private double[] bounds = new double[16 * 6];
+    
+    // Build state
+    private WorldRenderer renderer;
+    private boolean sectionOpen;
+    
+    // Last draw, for profiling
+    private int drawnBoxes;
+    private int culledBoxes;
+    
+    /**
+     * Starts replacing the geometry. Add vertices to {@code renderer}, calling
+     * {@link #beginSection()} before each group and {@link #includeBox} for each box, then {@link #end()}.
+     *
+     * @param mode GL primitive the vertices form, e.g. GL_QUADS or GL_LINES
+     */
+    public void begin(WorldRenderer renderer, int mode) {
+        this.renderer = renderer;
+        this.mode = mode;
+        this.vbo = OpenGlHelper.useVbo();
+        if (vbo) {
+            deleteDisplayLists();
+        } else {
+            deleteVertexBuffer();
+        }
+        sectionCount = 0;
+        renderer.begin(mode, DefaultVertexFormats.POSITION_COLOR);
+    }
+    
+    /**
+     * Ends the previous section and starts a new one.
+     */
+    public void beginSection() {
+        endSection();
+        if (sectionCount == boxCounts.length) {
+            grow();
+        }
+        int s = sectionCount;
+        firstVertex[s] = renderer.getVertexCount();
+        boxCounts[s] = 0;
+        int b = s * 6;
+        bounds[b] = bounds[b + 1] = bounds[b + 2] = Double.MAX_VALUE;
+        bounds[b + 3] = bounds[b + 4] = bounds[b + 5] = -Double.MAX_VALUE;
+        sectionOpen = true;
+    }
+    
+    /**
+     * Counts a box in the current section and grows its bounds to contain it.
+     */
+    public void includeBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        int b = sectionCount * 6;
+        bounds[b] = Math.min(bounds[b], minX);
+        bounds[b + 1] = Math.min(bounds[b + 1], minY);
+        bounds[b + 2] = Math.min(bounds[b + 2], minZ);
+        bounds[b + 3] = Math.max(bounds[b + 3], maxX);
+        bounds[b + 4] = Math.max(bounds[b + 4], maxY);
+        bounds[b + 5] = Math.max(bounds[b + 5], maxZ);
+        boxCounts[sectionCount]++;
+    }
+    
+    private void endSection() {
+        if (!sectionOpen) {
+            return;
+        }
+        sectionOpen = false;
+        int s = sectionCount;
+        if (boxCounts[s] == 0) {
+            return; // Nothing added; the slot is reused
+        }
+        vertexCounts[s] = renderer.getVertexCount() - firstVertex[s];
+        
+        if (!vbo) {
+            // Each section gets its own list so sections can be skipped when drawing
+            if (s == displayLists.length) {
+                int[] grown = new int[displayLists.length + 16];
+                System.arraycopy(displayLists, 0, grown, 0, displayLists.length);
+                for (int i = displayLists.length; i < grown.length; i++) {
+                    grown[i] = GLAllocation.generateDisplayLists(1);
+                }
+                displayLists = grown;
+            }
+            renderer.finishDrawing();
+            GL11.glNewList(displayLists[s], GL11.GL_COMPILE);
+            LIST_UPLOADER.draw(renderer); // Resets the renderer
+            GL11.glEndList();
+            renderer.begin(mode, DefaultVertexFormats.POSITION_COLOR);
+        }
+        sectionCount++;
+    }
+    
+    /**
+     * Finishes the geometry started by {@link #begin} and uploads it. Leaves the renderer reset.
+     */
+    public void end() {
+        endSection();
+        renderer.finishDrawing();
+        if (vbo) {
+            if (vertexBuffer == null) {
+                vertexBuffer = new VertexBuffer(DefaultVertexFormats.POSITION_COLOR);
+            }
+            vertexBuffer.bufferData(renderer.getByteBuffer());
+        }
+        renderer.reset();
+        renderer = null;
+    }
+    
+    /**
+     * True if the geometry was uploaded with the other storage than the current VBO setting asks for.
+     */
+    public boolean isStorageStale() {
+        return vbo != OpenGlHelper.useVbo();
+    }
+    
+    /**
+     * Draws the sections that are inside the frustum, at the current matrix.
+     *
+     * @param frustum Positioned at the camera, in the mesh's own coordinates
+     */
+    public void draw(Frustum frustum) {
+        drawnBoxes = 0;
+        culledBoxes = 0;
+        if (sectionCount == 0) {
+            return;
+        }
+        if (vbo) {
+            vertexBuffer.bindBuffer();
+            GL11.glVertexPointer(3, GL11.GL_FLOAT, STRIDE, 0L);
+            GL11.glColorPointer(4, GL11.GL_UNSIGNED_BYTE, STRIDE, COLOR_OFFSET);
+            GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+            GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+        }
+        
+        int runFirst = 0;
+        int runCount = 0;
+        for (int s = 0; s < sectionCount; s++) {
+            int b = s * 6;
+            if (!frustum.isBoxInFrustum(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3], bounds[b + 4], bounds[b + 5])) {
+                culledBoxes += boxCounts[s];
+                continue;
+            }
+            drawnBoxes += boxCounts[s];
+            if (!vbo) {
+                GL11.glCallList(displayLists[s]);
+            } else if (runCount > 0 && runFirst + runCount == firstVertex[s]) {
+                runCount += vertexCounts[s];
+            } else {
+                if (runCount > 0) {
+                    GL11.glDrawArrays(mode, runFirst, runCount);
+                }
+                runFirst = firstVertex[s];
+                runCount = vertexCounts[s];
+            }
+        }
+        
+        if (vbo) {
+            if (runCount > 0) {
+                GL11.glDrawArrays(mode, runFirst, runCount);
+            }
+            vertexBuffer.unbindBuffer();
+            GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+            GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+        }
+        // The colour array leaves the current colour undefined
+        GlStateManager.resetColor();
+    }
+    
+    /**
+     * Boxes submitted by the last {@link #draw}.
+     */
+    public int getDrawnCount() {
+        return drawnBoxes;
+    }
+    
+    /**
+     * Boxes skipped by the last {@link #draw} because their section was outside the frustum.
+     */
+    public int getCulledCount() {
+        return culledBoxes;
+    }
+    
+    /**
+     * Frees the GL objects. The mesh can be built again afterwards.
+     */
+    public void delete() {
+        deleteVertexBuffer();
+        deleteDisplayLists();
+        sectionCount = 0;
+        drawnBoxes = 0;
+        culledBoxes = 0;
+    }
+    
+    private void grow() {
+        int capacity = boxCounts.length * 2;
+        int[] first = new int[capacity];
+        int[] counts = new int[capacity];
+        int[] boxes = new int[capacity];
+        double[] grownBounds = new double[capacity * 6];
+        System.arraycopy(firstVertex, 0, first, 0, sectionCount);
+        System.arraycopy(vertexCounts, 0, counts, 0, sectionCount);
+        System.arraycopy(boxCounts, 0, boxes, 0, sectionCount);
+        System.arraycopy(bounds, 0, grownBounds, 0, sectionCount * 6);
+        firstVertex = first;
+        vertexCounts = counts;
+        boxCounts = boxes;
+        bounds = grownBounds;
+    }
+    
+    private void deleteVertexBuffer() {
+        if (vertexBuffer != null) {
+            vertexBuffer.deleteGlBuffers();
+            vertexBuffer = null;
+        }
+    }
+    
+    private void deleteDisplayLists() {
+        for (int i = 0; i < displayLists.length; i++) {
+            GLAllocation.deleteDisplayLists(displayLists[i]);
+        }
+        displayLists = new int[0];
+    }
+}
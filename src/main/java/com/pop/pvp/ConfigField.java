@@ -0,0 +1,553 @@
+package com.pop.pvp;
+
+import com.pop.pvp.ConfigManager.ModConfig;
+import com.pop.pvp.ConfigManager.WindowLayout;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One constant per persisted {@link ModConfig} field.
+ * Used as the key for change listeners and to diff or copy single fields
+ * without reflection. Keep in sync with ModConfig when adding fields;
+ * numbers and booleans also get a {@link ScalarField}.
+ */
+public enum ConfigField {
+    AUTO_CLICKER_ENABLED(24) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.autoClickerEnabled != b.autoClickerEnabled;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.autoClickerEnabled = from.autoClickerEnabled;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.autoClickerEnabled = buffer.getInt(offset()) != 0;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.autoClickerEnabled ? 1 : 0);
+        }
+    },
+    AUTO_CLICKER_MIN_CPS(32) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.autoClickerMinCPS != b.autoClickerMinCPS;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.autoClickerMinCPS = from.autoClickerMinCPS;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.autoClickerMinCPS = buffer.getDouble(offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putDouble(offset(), config.autoClickerMinCPS);
+        }
+    },
+    AUTO_CLICKER_MAX_CPS(40) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.autoClickerMaxCPS != b.autoClickerMaxCPS;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.autoClickerMaxCPS = from.autoClickerMaxCPS;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.autoClickerMaxCPS = buffer.getDouble(offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putDouble(offset(), config.autoClickerMaxCPS);
+        }
+    },
+    SPRINT_ENABLED(48) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.sprintEnabled != b.sprintEnabled;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.sprintEnabled = from.sprintEnabled;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.sprintEnabled = buffer.getInt(offset()) != 0;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.sprintEnabled ? 1 : 0);
+        }
+    },
+    CHEST_ESP_ENABLED(52) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.chestESPEnabled != b.chestESPEnabled;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.chestESPEnabled = from.chestESPEnabled;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.chestESPEnabled = buffer.getInt(offset()) != 0;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.chestESPEnabled ? 1 : 0);
+        }
+    },
+    CHEST_ESP_RED(56) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.chestESPRed != b.chestESPRed;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.chestESPRed = from.chestESPRed;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.chestESPRed = buffer.getInt(offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.chestESPRed);
+        }
+    },
+    CHEST_ESP_GREEN(60) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.chestESPGreen != b.chestESPGreen;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.chestESPGreen = from.chestESPGreen;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.chestESPGreen = buffer.getInt(offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.chestESPGreen);
+        }
+    },
+    CHEST_ESP_BLUE(64) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.chestESPBlue != b.chestESPBlue;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.chestESPBlue = from.chestESPBlue;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.chestESPBlue = buffer.getInt(offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.chestESPBlue);
+        }
+    },
+    CHEST_ESP_RANGE(88) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.chestESPRange != b.chestESPRange;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.chestESPRange = from.chestESPRange;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.chestESPRange = buffer.getInt(offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.chestESPRange);
+        }
+    },
+    CHEST_ESP_OUTLINE(92) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.chestESPOutline != b.chestESPOutline;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.chestESPOutline = from.chestESPOutline;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.chestESPOutline = buffer.getInt(offset()) != 0;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.chestESPOutline ? 1 : 0);
+        }
+    },
+    TOGGLE_KEY(68) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.toggleKey != b.toggleKey;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.toggleKey = from.toggleKey;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.toggleKey = buffer.getInt(offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.toggleKey);
+        }
+    },
+    SHOW_VERSION(72) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.showVersion != b.showVersion;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.showVersion = from.showVersion;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.showVersion = buffer.getInt(offset()) != 0;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.showVersion ? 1 : 0);
+        }
+    },
+    ACCENT_COLOR_RED(76) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.accentColorRed != b.accentColorRed;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.accentColorRed = from.accentColorRed;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.accentColorRed = buffer.getInt(offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.accentColorRed);
+        }
+    },
+    ACCENT_COLOR_GREEN(80) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.accentColorGreen != b.accentColorGreen;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.accentColorGreen = from.accentColorGreen;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.accentColorGreen = buffer.getInt(offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.accentColorGreen);
+        }
+    },
+    ACCENT_COLOR_BLUE(84) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.accentColorBlue != b.accentColorBlue;
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.accentColorBlue = from.accentColorBlue;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.accentColorBlue = buffer.getInt(offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            buffer.putInt(offset(), config.accentColorBlue);
+        }
+    },
+    COMBAT_WINDOW_LAYOUT(96) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return !WindowLayout.same(a.combatWindowLayout, b.combatWindowLayout);
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.combatWindowLayout = WindowLayout.copyOf(from.combatWindowLayout);
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.combatWindowLayout = readLayout(buffer, offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            writeLayout(buffer, offset(), config.combatWindowLayout);
+        }
+    },
+    RENDER_WINDOW_LAYOUT(116) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return !WindowLayout.same(a.renderWindowLayout, b.renderWindowLayout);
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.renderWindowLayout = WindowLayout.copyOf(from.renderWindowLayout);
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.renderWindowLayout = readLayout(buffer, offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            writeLayout(buffer, offset(), config.renderWindowLayout);
+        }
+    },
+    MOVEMENT_WINDOW_LAYOUT(136) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return !WindowLayout.same(a.movementWindowLayout, b.movementWindowLayout);
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.movementWindowLayout = WindowLayout.copyOf(from.movementWindowLayout);
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.movementWindowLayout = readLayout(buffer, offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            writeLayout(buffer, offset(), config.movementWindowLayout);
+        }
+    },
+    CLIENT_WINDOW_LAYOUT(156) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return !WindowLayout.same(a.clientWindowLayout, b.clientWindowLayout);
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.clientWindowLayout = WindowLayout.copyOf(from.clientWindowLayout);
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.clientWindowLayout = readLayout(buffer, offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            writeLayout(buffer, offset(), config.clientWindowLayout);
+        }
+    },
+    PROFILE(176) {
+        @Override
+        public boolean differs(ModConfig a, ModConfig b) {
+            return a.profile == null ? b.profile != null : !a.profile.equals(b.profile);
+        }
+
+        @Override
+        public void copy(ModConfig from, ModConfig to) {
+            to.profile = from.profile;
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, ModConfig config) {
+            config.profile = readProfile(buffer, offset());
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, ModConfig config) {
+            writeProfile(buffer, offset(), config.profile);
+        }
+    };
+
+    /** Bytes after a window layout's offset: present flag + x, y, width, height. */
+    static final int LAYOUT_BYTES = 20;
+
+    /** Bytes after the profile's offset: byte length + UTF-8 bytes. Names are at most 32 chars, so 4 bytes each is enough. */
+    static final int PROFILE_BYTES = 4 + 128;
+
+    private static final ConfigField[] FIELDS = values();
+
+    private final int offset;
+
+    ConfigField(int offset) {
+        this.offset = offset;
+    }
+
+    /** Number of fields; also the size of per-field lookup tables. */
+    public static final int COUNT = FIELDS.length;
+
+    /** Bit mask with every field set. */
+    public static final long ALL = (1L << COUNT) - 1;
+
+    /**
+     * Returns true if this field has different values in a and b.
+     */
+    public abstract boolean differs(ModConfig a, ModConfig b);
+
+    /**
+     * Copies this field's value from one config to another.
+     */
+    public abstract void copy(ModConfig from, ModConfig to);
+
+    /**
+     * Reads this field from its offset in the binary store into config.
+     */
+    public abstract void read(ByteBuffer buffer, ModConfig config);
+
+    /**
+     * Writes this field from config to its offset in the binary store.
+     */
+    public abstract void write(ByteBuffer buffer, ModConfig config);
+
+    /**
+     * Byte offset of this field in the binary store. Ints and booleans take 4 bytes, doubles 8.
+     */
+    public int offset() {
+        return offset;
+    }
+
+    public long mask() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Returns a bit mask (see {@link #mask()}) of the fields that differ.
+     * A null previous config counts as every field changed.
+     */
+    public static long diff(ModConfig previous, ModConfig current) {
+        if (previous == null) {
+            return ALL;
+        }
+        long changed = 0;
+        for (ConfigField field : FIELDS) {
+            if (field.differs(previous, current)) {
+                changed |= field.mask();
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the field with the given ordinal. Unlike values() this does not allocate.
+     */
+    public static ConfigField byOrdinal(int ordinal) {
+        return FIELDS[ordinal];
+    }
+
+    private static WindowLayout readLayout(ByteBuffer buffer, int offset) {
+        if (buffer.getInt(offset) == 0) {
+            return null;
+        }
+        return new WindowLayout(
+            buffer.getInt(offset + 4), buffer.getInt(offset + 8),
+            buffer.getInt(offset + 12), buffer.getInt(offset + 16));
+    }
+
+    private static void writeLayout(ByteBuffer buffer, int offset, WindowLayout layout) {
+        if (layout == null) {
+            buffer.putInt(offset, 0);
+            return;
+        }
+        buffer.putInt(offset + 4, layout.x);
+        buffer.putInt(offset + 8, layout.y);
+        buffer.putInt(offset + 12, layout.width);
+        buffer.putInt(offset + 16, layout.height);
+        buffer.putInt(offset, 1);
+    }
+
+    private static String readProfile(ByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > PROFILE_BYTES - 4) {
+            return ConfigManager.DEFAULT_PROFILE;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeProfile(ByteBuffer buffer, int offset, String profile) {
+        byte[] bytes = profile.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, PROFILE_BYTES - 4);
+        for (int i = 0; i < length; i++) {
+            buffer.put(offset + 4 + i, bytes[i]);
+        }
+        buffer.putInt(offset, length);
+    }
+}
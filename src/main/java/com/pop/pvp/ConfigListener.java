@@ -0,0 +1,15 @@
+package com.pop.pvp;
+
+/**
+ * Receives committed config changes.
+ * Register per field with {@link ConfigManager#addListener(ConfigField, ConfigListener)}.
+ * Called on the thread that committed the change (normally the client thread),
+ * once for each field that changed in a commit.
+ */
+public interface ConfigListener {
+    /**
+     * @param field The field that changed
+     * @param snapshot The newly published snapshot containing the change
+     */
+    void onConfigChanged(ConfigField field, ConfigSnapshot snapshot);
+}
@@ -1,70 +1,331 @@
 package com.pop.pvp;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import net.minecraftforge.fml.common.FMLLog;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class ConfigManager {
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    public static final String DEFAULT_PROFILE = "Default";
+    private static final int MAX_PROFILE_NAME_LENGTH = 32;
+    
     private final File configFile;
+    private final File profileDir;
+    private final ConfigWriter writer;
+    private final BinaryConfigStore binaryStore;
     private ModConfig config;
+    private volatile ModConfig lastSaved; // Last committed copy, never mutated; null if none yet
+    private int sequence; // Bumped on every committed change, mirrored in the binary store
+    private volatile ConfigSnapshot snapshot; // Published view for tick and render handlers
+    // Listeners indexed by ConfigField ordinal; arrays are replaced, never mutated, on registration
+    private final ConfigListener[][] listeners = new ConfigListener[ConfigField.COUNT][];
+    // Every profile, parsed once at startup. Values are committed copies and never mutated;
+    // the active profile's entry is replaced on every commit.
+    private final Map<String, ModConfig> profiles = new TreeMap<String, ModConfig>();
     
     public ConfigManager(File configDir) {
         this.configFile = new File(configDir, "popular.json");
+        this.profileDir = new File(configDir, "popular-profiles");
+        this.writer = new ConfigWriter();
+        this.binaryStore = new BinaryConfigStore(new File(configDir, "popular.bin"));
         this.config = new ModConfig(); // Default config
+        this.snapshot = new ConfigSnapshot(config, sequence);
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i] = new ConfigListener[0];
+        }
     }
     
     public void loadConfig() {
+        if (binaryStore.open() && configFile.exists() && configFile.lastModified() == binaryStore.getJsonStamp()) {
+            // popular.json is unchanged since our last export - read the mapped snapshot, no parsing
+            config = binaryStore.read();
+            sequence = binaryStore.getSavedSequence();
+            if (!binaryStore.isExportPending()) {
+                lastSaved = config.copy();
+            }
+        } else {
+            // First run, or popular.json was edited by hand - import it
+            importJson();
+            binaryStore.write(config, ConfigField.ALL, sequence);
+            if (lastSaved != null) {
+                binaryStore.markExported(sequence, configFile.lastModified());
+            }
+        }
+        if (!isValidProfileName(config.profile)) {
+            config.profile = DEFAULT_PROFILE;
+        }
+        loadProfiles();
+        snapshot = new ConfigSnapshot(config, sequence);
+        saveConfig(); // Save to ensure all fields are present
+    }
+    
+    /**
+     * Parses every profile file once, so switching later needs no disk access.
+     */
+    private void loadProfiles() {
+        File[] files = profileDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String fileName = file.getName();
+                if (!fileName.endsWith(".json")) continue;
+                String name = fileName.substring(0, fileName.length() - ".json".length());
+                if (!isValidProfileName(name)) continue;
+                
+                try {
+                    String json = new String(Files.readAllBytes(file.toPath()), "UTF-8");
+                    ModConfig profile = ModConfigCodec.read(new StringReader(json));
+                    if (profile != null) {
+                        profile.profile = name; // The file name is authoritative
+                        profiles.put(name, profile);
+                    }
+                } catch (IOException e) {
+                    FMLLog.warning("[Popular] Failed to load profile " + name + ": " + e.getMessage());
+                }
+            }
+        }
+        
+        // popular.json holds the live state of the active profile, which wins over its file
+        ModConfig active = profiles.get(config.profile);
+        if (active == null || ConfigField.diff(active, config) != 0) {
+            ModConfig copy = config.copy();
+            profiles.put(config.profile, copy);
+            writer.submit(profileFile(config.profile), copy, null);
+        }
+    }
+    
+    private void importJson() {
         if (configFile.exists()) {
-            InputStreamReader reader = null;
             try {
-                reader = new InputStreamReader(new FileInputStream(configFile), "UTF-8");
-                config = GSON.fromJson(reader, ModConfig.class);
+                String json = new String(Files.readAllBytes(configFile.toPath()), "UTF-8");
+                config = ModConfigCodec.read(new StringReader(json));
                 if (config == null) {
                     config = new ModConfig();
+                } else if (ModConfigCodec.toJson(config).equals(json)) {
+                    // File already holds every field in canonical form - no rewrite needed
+                    lastSaved = config.copy();
                 }
             } catch (IOException e) {
                 FMLLog.warning("[Popular] Failed to load config, using defaults: " + e.getMessage());
                 config = new ModConfig();
-            } finally {
-                if (reader != null) {
-                    try {
-                        reader.close();
-                    } catch (IOException e) {
-                        // Ignore
-                    }
-                }
             }
         }
-        saveConfig(); // Save to ensure all fields are present
     }
     
+    /**
+     * Commits changes made to {@link #getConfig()}: publishes a new snapshot and
+     * queues the config for writing.
+     * Cheap enough to call on every change - changed fields go straight into the
+     * mapped binary store and popular.json is written later by a background thread,
+     * so the render thread never touches the filesystem.
+     * Does nothing if the config is unchanged since the last save.
+     */
     public void saveConfig() {
-        // Ensure parent directory exists
-        configFile.getParentFile().mkdirs();
-        OutputStreamWriter writer = null;
-        try {
-            writer = new OutputStreamWriter(new FileOutputStream(configFile), "UTF-8");
-            GSON.toJson(config, writer);
-        } catch (IOException e) {
-            FMLLog.severe("[Popular] Failed to save config: " + e.getMessage());
-        } finally {
-            if (writer != null) {
-                try {
-                    writer.close();
-                } catch (IOException e) {
-                    // Ignore
+        long changed = ConfigField.diff(lastSaved, config);
+        if (changed == 0) {
+            return;
+        }
+        sequence++;
+        ConfigSnapshot committed = new ConfigSnapshot(config, sequence);
+        snapshot = committed;
+        binaryStore.write(config, changed, sequence);
+        lastSaved = config.copy();
+        
+        final int exportedSequence = sequence;
+        writer.submit(configFile, lastSaved, new Runnable() {
+            @Override
+            public void run() {
+                binaryStore.markExported(exportedSequence, configFile.lastModified());
+            }
+        });
+        
+        // Keep the active profile current, so switching away never has to save it first
+        profiles.put(lastSaved.profile, lastSaved);
+        writer.submit(profileFile(lastSaved.profile), lastSaved, null);
+        
+        fireChanged(changed, committed);
+    }
+    
+    /**
+     * Calls the listeners of every field set in the changed mask. Allocation-free.
+     */
+    private void fireChanged(long changed, ConfigSnapshot committed) {
+        for (int i = 0; i < listeners.length; i++) {
+            if ((changed & (1L << i)) == 0) {
+                continue;
+            }
+            ConfigField field = ConfigField.byOrdinal(i);
+            ConfigListener[] table = listeners[i];
+            for (int j = 0; j < table.length; j++) {
+                table[j].onConfigChanged(field, committed);
+            }
+        }
+    }
+    
+    /**
+     * Registers a listener that is called whenever the given field changes.
+     * Should be called from the client thread.
+     */
+    public void addListener(ConfigField field, ConfigListener listener) {
+        ConfigListener[] table = listeners[field.ordinal()];
+        ConfigListener[] grown = new ConfigListener[table.length + 1];
+        System.arraycopy(table, 0, grown, 0, table.length);
+        grown[table.length] = listener;
+        listeners[field.ordinal()] = grown;
+    }
+    
+    /**
+     * Registers a listener for several fields at once.
+     */
+    public void addListener(ConfigListener listener, ConfigField... fields) {
+        for (ConfigField field : fields) {
+            addListener(field, listener);
+        }
+    }
+    
+    /**
+     * Unregisters a listener from every field it was registered for.
+     */
+    public void removeListener(ConfigListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            ConfigListener[] table = listeners[i];
+            for (int j = 0; j < table.length; j++) {
+                if (table[j] == listener) {
+                    ConfigListener[] shrunk = new ConfigListener[table.length - 1];
+                    System.arraycopy(table, 0, shrunk, 0, j);
+                    System.arraycopy(table, j + 1, shrunk, j, table.length - j - 1);
+                    listeners[i] = shrunk;
+                    break;
                 }
             }
         }
     }
     
+    /**
+     * Copies the given fields from source into the live config and commits them.
+     * Used to apply a reloaded file; must run on the client thread.
+     *
+     * @param fields Bit mask of {@link ConfigField#mask()} values
+     */
+    public void applyChanges(ModConfig source, long fields) {
+        for (int i = 0; i < ConfigField.COUNT; i++) {
+            if ((fields & (1L << i)) != 0) {
+                ConfigField.byOrdinal(i).copy(source, config);
+            }
+        }
+        if (!isValidProfileName(config.profile)) {
+            config.profile = DEFAULT_PROFILE;
+        }
+        saveConfig();
+    }
+    
+    /**
+     * Makes the named profile active. Only fields that differ from the current
+     * profile are applied, and they are committed together as one change.
+     * Profiles are already in memory, so this never reads from disk.
+     * Must run on the client thread.
+     */
+    public void switchProfile(String name) {
+        ModConfig target = profiles.get(name);
+        if (target == null || name.equals(config.profile)) {
+            return;
+        }
+        applyChanges(target, ConfigField.diff(config, target));
+    }
+    
+    /**
+     * Creates a profile from the current settings and switches to it.
+     *
+     * @return The new profile's name
+     */
+    public String createProfile() {
+        int number = profiles.size() + 1;
+        while (profiles.containsKey("Profile " + number)) {
+            number++;
+        }
+        String name = "Profile " + number;
+        
+        ModConfig profile = config.copy();
+        profile.profile = name;
+        profiles.put(name, profile);
+        switchProfile(name); // Only the profile name differs
+        return name;
+    }
+    
+    /**
+     * Returns the names of all profiles, sorted.
+     */
+    public List<String> getProfileNames() {
+        return new ArrayList<String>(profiles.keySet());
+    }
+    
+    private File profileFile(String name) {
+        return new File(profileDir, name + ".json");
+    }
+    
+    /**
+     * Profile names double as file names and must fit the binary store's name slot.
+     */
+    static boolean isValidProfileName(String name) {
+        if (name == null || name.isEmpty() || name.length() > MAX_PROFILE_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != ' ' && c != '-' && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns the last committed config. Safe to read from any thread; must not be modified.
+     */
+    ModConfig getLastCommitted() {
+        return lastSaved;
+    }
+    
+    /**
+     * Returns true if the given file contents were written by this manager.
+     */
+    boolean isOwnWrite(String json) {
+        return writer.isOwnWrite(configFile, json);
+    }
+    
+    /**
+     * Starts watching popular.json for external edits (hot reload).
+     */
+    public void startWatcher() {
+        new ConfigWatcher(this, configFile).start();
+    }
+    
+    /**
+     * Writes any queued config immediately. Called on shutdown.
+     */
+    public void flush() {
+        writer.flush();
+        binaryStore.force();
+    }
+    
+    /**
+     * Returns the mutable config for editing. Call {@link #saveConfig()} after changing it.
+     * Handlers that only read should use {@link #getSnapshot()}.
+     */
     public ModConfig getConfig() {
         return config;
     }
     
+    /**
+     * Returns the latest committed config. Never null, never modified.
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
     public static class ModConfig {
         public boolean autoClickerEnabled = false;
         public double autoClickerMinCPS = 18.1; // Minimum CPS
@@ -75,6 +336,8 @@ public class ConfigManager {
         public int chestESPRed = 100;   // 0-255
         public int chestESPGreen = 150; // 0-255
         public int chestESPBlue = 255;  // 0-255 (cyan/blue default)
+        public int chestESPRange = 64;  // Blocks
+        public boolean chestESPOutline = false; // Edges only instead of filled boxes
         public int toggleKey = 46; // C key by default
         public boolean showVersion = false; // Show mod name/version in HUD
         // UI Theme settings
@@ -86,6 +349,36 @@ public class ConfigManager {
         public WindowLayout renderWindowLayout = null;
         public WindowLayout movementWindowLayout = null;
         public WindowLayout clientWindowLayout = null;
+        // Name of the profile these settings belong to
+        public String profile = DEFAULT_PROFILE;
+        
+        /**
+         * Creates an independent copy for handing to the background writer.
+         */
+        public ModConfig copy() {
+            ModConfig copy = new ModConfig();
+            copy.autoClickerEnabled = autoClickerEnabled;
+            copy.autoClickerMinCPS = autoClickerMinCPS;
+            copy.autoClickerMaxCPS = autoClickerMaxCPS;
+            copy.sprintEnabled = sprintEnabled;
+            copy.chestESPEnabled = chestESPEnabled;
+            copy.chestESPRed = chestESPRed;
+            copy.chestESPGreen = chestESPGreen;
+            copy.chestESPBlue = chestESPBlue;
+            copy.chestESPRange = chestESPRange;
+            copy.chestESPOutline = chestESPOutline;
+            copy.toggleKey = toggleKey;
+            copy.showVersion = showVersion;
+            copy.accentColorRed = accentColorRed;
+            copy.accentColorGreen = accentColorGreen;
+            copy.accentColorBlue = accentColorBlue;
+            copy.combatWindowLayout = WindowLayout.copyOf(combatWindowLayout);
+            copy.renderWindowLayout = WindowLayout.copyOf(renderWindowLayout);
+            copy.movementWindowLayout = WindowLayout.copyOf(movementWindowLayout);
+            copy.clientWindowLayout = WindowLayout.copyOf(clientWindowLayout);
+            copy.profile = profile;
+            return copy;
+        }
     }
     
     public static class WindowPosition {
@@ -109,7 +402,7 @@ public class ConfigManager {
         public int height;
         
         public WindowLayout() {
-            // Default constructor for Gson
+            // Default constructor for ModConfigCodec
         }
         
         public WindowLayout(int x, int y, int width, int height) {
@@ -118,22 +411,35 @@ public class ConfigManager {
             this.width = width;
             this.height = height;
         }
+        
+        public boolean matches(int x, int y, int width, int height) {
+            return this.x == x && this.y == y && this.width == width && this.height == height;
+        }
+        
+        static boolean same(WindowLayout a, WindowLayout b) {
+            if (a == null || b == null) {
+                return a == b;
+            }
+            return a.matches(b.x, b.y, b.width, b.height);
+        }
+        
+        static WindowLayout copyOf(WindowLayout layout) {
+            return layout == null ? null : new WindowLayout(layout.x, layout.y, layout.width, layout.height);
+        }
     }
     
     /**
      * Gets the accent color as an RGB integer.
      */
     public int getAccentColor() {
-        ModConfig config = getConfig();
-        return (config.accentColorRed << 16) | (config.accentColorGreen << 8) | config.accentColorBlue;
+        return snapshot.accentColor;
     }
     
     /**
      * Gets the chest ESP color as an RGB integer.
      */
     public int getChestESPColor() {
-        ModConfig config = getConfig();
-        return (config.chestESPRed << 16) | (config.chestESPGreen << 8) | config.chestESPBlue;
+        return snapshot.chestESPColor;
     }
 }
 
@@ -0,0 +1,65 @@
+package com.pop.pvp;
+
+/**
+ * Immutable view of the config at one version, with derived values precomputed.
+ * ConfigManager publishes a new snapshot whenever a change is committed.
+ *
+ * Why: Tick and render handlers read config every frame. Reading one published
+ * snapshot costs a single volatile read instead of re-deriving colours and lists,
+ * and the GUI can keep editing ModConfig without handlers seeing half-applied changes.
+ * Window layouts are not included - only the menu uses them.
+ */
+public final class ConfigSnapshot {
+    public final int version;
+
+    public final boolean autoClickerEnabled;
+    public final double autoClickerMinCPS;
+    public final double autoClickerMaxCPS;
+    public final boolean sprintEnabled;
+    public final boolean chestESPEnabled;
+    public final int chestESPRed;
+    public final int chestESPGreen;
+    public final int chestESPBlue;
+    public final int chestESPRange;
+    public final boolean chestESPOutline;
+    public final int toggleKey;
+    public final boolean showVersion;
+    public final int accentColorRed;
+    public final int accentColorGreen;
+    public final int accentColorBlue;
+    public final String profile;
+
+    // Derived values
+    public final int accentColor;    // 0xRRGGBB
+    public final int chestESPColor;  // 0xRRGGBB
+    public final float chestESPRedF;   // 0.0-1.0
+    public final float chestESPGreenF; // 0.0-1.0
+    public final float chestESPBlueF;  // 0.0-1.0
+
+    public ConfigSnapshot(ConfigManager.ModConfig config, int version) {
+        this.version = version;
+
+        this.autoClickerEnabled = config.autoClickerEnabled;
+        this.autoClickerMinCPS = config.autoClickerMinCPS;
+        this.autoClickerMaxCPS = config.autoClickerMaxCPS;
+        this.sprintEnabled = config.sprintEnabled;
+        this.chestESPEnabled = config.chestESPEnabled;
+        this.chestESPRed = config.chestESPRed;
+        this.chestESPGreen = config.chestESPGreen;
+        this.chestESPBlue = config.chestESPBlue;
+        this.chestESPRange = config.chestESPRange;
+        this.chestESPOutline = config.chestESPOutline;
+        this.toggleKey = config.toggleKey;
+        this.showVersion = config.showVersion;
+        this.accentColorRed = config.accentColorRed;
+        this.accentColorGreen = config.accentColorGreen;
+        this.accentColorBlue = config.accentColorBlue;
+        this.profile = config.profile;
+
+        this.accentColor = (accentColorRed << 16) | (accentColorGreen << 8) | accentColorBlue;
+        this.chestESPColor = (chestESPRed << 16) | (chestESPGreen << 8) | chestESPBlue;
+        this.chestESPRedF = (chestESPColor >> 16 & 255) / 255.0F;
+        this.chestESPGreenF = (chestESPColor >> 8 & 255) / 255.0F;
+        this.chestESPBlueF = (chestESPColor & 255) / 255.0F;
+    }
+}
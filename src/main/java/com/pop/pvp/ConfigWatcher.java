@@ -0,0 +1,142 @@
+package com.pop.pvp;
+
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.fml.common.FMLLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Reloads popular.json when it changes on disk, without restarting the game.
+ * A daemon thread watches the config directory, parses the new file and diffs it
+ * against the last committed config. Only the changed fields are handed to the
+ * client thread, where they are applied and committed like a normal edit.
+ *
+ * Why: Tuned configs are pushed to client machines while the game is running.
+ */
+public class ConfigWatcher {
+    private static final long SETTLE_MS = 100; // Let editors finish writing before reading
+
+    private final ConfigManager configManager;
+    private final File configFile;
+
+    public ConfigWatcher(ConfigManager configManager, File configFile) {
+        this.configManager = configManager;
+        this.configFile = configFile;
+    }
+
+    /**
+     * Starts the watcher thread. Hot reload is disabled if the directory cannot be watched.
+     */
+    public void start() {
+        final WatchService service;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+            configFile.getParentFile().toPath().register(service,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            FMLLog.warning("[Popular] Config hot reload unavailable: " + e.getMessage());
+            return;
+        }
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch(service);
+            }
+        }, "Popular Config Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch(WatchService service) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+                if (isConfigEvent(key)) {
+                    // Editors often write in several steps; wait, then drop the follow-up events
+                    Thread.sleep(SETTLE_MS);
+                    WatchKey more;
+                    while ((more = service.poll()) != null) {
+                        more.pollEvents();
+                        more.reset();
+                    }
+                    try {
+                        reload();
+                    } catch (RuntimeException e) {
+                        // A bad edit must not stop the watcher; the next save is picked up again
+                        FMLLog.warning("[Popular] Failed to reload config: " + e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (!key.reset()) {
+                return; // Config directory is gone
+            }
+        }
+    }
+
+    private boolean isConfigEvent(WatchKey key) {
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                touched = true; // Events were lost, check anyway
+            } else if (event.context() instanceof Path
+                && ((Path) event.context()).getFileName().toString().equals(configFile.getName())) {
+                touched = true;
+            }
+        }
+        return touched;
+    }
+
+    /**
+     * Parses the file off-thread and schedules the changed fields for the client thread.
+     */
+    private void reload() {
+        String json;
+        try {
+            json = new String(Files.readAllBytes(configFile.toPath()), "UTF-8");
+        } catch (IOException e) {
+            return; // Deleted or replaced mid-read; a later event will follow
+        }
+
+        if (configManager.isOwnWrite(json)) {
+            return; // Our own save
+        }
+
+        final ConfigManager.ModConfig loaded;
+        try {
+            loaded = ModConfigCodec.read(new StringReader(json));
+        } catch (IOException e) {
+            FMLLog.warning("[Popular] Ignoring config change, failed to parse: " + e.getMessage());
+            return;
+        }
+        if (loaded == null) {
+            return;
+        }
+
+        final long changed = ConfigField.diff(configManager.getLastCommitted(), loaded);
+        if (changed == 0) {
+            return; // Formatting-only edit
+        }
+
+        Minecraft.getMinecraft().addScheduledTask(new Runnable() {
+            @Override
+            public void run() {
+                configManager.applyChanges(loaded, changed);
+                FMLLog.info("[Popular] Reloaded config from disk");
+            }
+        });
+    }
+}
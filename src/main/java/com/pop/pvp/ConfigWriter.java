@@ -0,0 +1,191 @@
+package com.pop.pvp;
+
+import net.minecraftforge.fml.common.FMLLog;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-behind persistence for config files.
+ * Callers hand over a snapshot and return immediately; a single daemon thread
+ * waits until the config has been quiet for a short while and then writes only
+ * the newest snapshot of each file.
+ *
+ * Why: Sliders commit on every rendered frame while dragged. Writing the file
+ * on the render thread each time causes hitches, and only the final value matters.
+ */
+public class ConfigWriter {
+    private static final long DEBOUNCE_MS = 500; // Quiet period before a write
+
+    private final Object lock = new Object();
+    private final Object writeLock = new Object();
+
+    // Guarded by lock
+    private Map<File, Pending> pending = new LinkedHashMap<File, Pending>();
+    private long sequence;
+    private long lastSubmitTime;
+    private Thread thread;
+
+    // Guarded by writeLock
+    private final Map<File, Long> writtenSequences = new HashMap<File, Long>();
+
+    // Contents of our most recent write per file, so the file watcher can ignore our own saves
+    private final Map<File, String> lastWrittenJson = new HashMap<File, String>();
+
+    private static class Pending {
+        final File file;
+        final ConfigManager.ModConfig snapshot;
+        final Runnable callback;
+        final long sequence;
+
+        Pending(File file, ConfigManager.ModConfig snapshot, Runnable callback, long sequence) {
+            this.file = file;
+            this.snapshot = snapshot;
+            this.callback = callback;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Queues a snapshot for writing to the given file. Replaces any snapshot for the
+     * same file that has not been written yet.
+     * The snapshot must not be modified after it is submitted.
+     *
+     * @param onWritten Run on the writing thread once this snapshot is on disk, or null.
+     *                  Dropped if the snapshot is replaced before it is written.
+     */
+    public void submit(File file, ConfigManager.ModConfig snapshot, Runnable onWritten) {
+        synchronized (lock) {
+            pending.put(file, new Pending(file, snapshot, onWritten, ++sequence));
+            lastSubmitTime = System.currentTimeMillis();
+
+            if (thread == null) {
+                thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        runLoop();
+                    }
+                }, "Popular Config Writer");
+                thread.setDaemon(true);
+                thread.start();
+            } else {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes all pending snapshots immediately on the calling thread.
+     * Used on shutdown so the last change is never lost to the debounce delay.
+     */
+    public void flush() {
+        writeAll(takePending());
+    }
+
+    /**
+     * Returns true if the given contents are exactly what this writer last wrote to the file.
+     */
+    public boolean isOwnWrite(File file, String json) {
+        synchronized (lastWrittenJson) {
+            return json.equals(lastWrittenJson.get(file));
+        }
+    }
+
+    private List<Pending> takePending() {
+        synchronized (lock) {
+            List<Pending> taken = new ArrayList<Pending>(pending.values());
+            pending = new LinkedHashMap<File, Pending>();
+            return taken;
+        }
+    }
+
+    private void runLoop() {
+        while (true) {
+            synchronized (lock) {
+                try {
+                    if (pending.isEmpty()) {
+                        lock.wait();
+                        continue;
+                    }
+
+                    // Wait until no new snapshot has arrived for DEBOUNCE_MS
+                    long remaining = lastSubmitTime + DEBOUNCE_MS - System.currentTimeMillis();
+                    if (remaining > 0) {
+                        lock.wait(remaining);
+                        continue;
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            writeAll(takePending());
+        }
+    }
+
+    private void writeAll(List<Pending> writes) {
+        for (Pending write : writes) {
+            write(write);
+        }
+    }
+
+    /**
+     * Serializes the snapshot to a temp file and renames it over the target,
+     * so a crash mid-write never leaves a truncated file behind.
+     */
+    private void write(Pending write) {
+        synchronized (writeLock) {
+            // flush() and the writer thread may race; never overwrite a newer snapshot
+            Long written = writtenSequences.get(write.file);
+            if (written != null && write.sequence <= written) {
+                return;
+            }
+
+            File tempFile = new File(write.file.getParentFile(), write.file.getName() + ".tmp");
+            write.file.getParentFile().mkdirs();
+            String json = ModConfigCodec.toJson(write.snapshot);
+            synchronized (lastWrittenJson) {
+                lastWrittenJson.put(write.file, json); // Set before the rename makes the file visible
+            }
+            OutputStreamWriter writer = null;
+            try {
+                writer = new OutputStreamWriter(new FileOutputStream(tempFile), "UTF-8");
+                writer.write(json);
+                writer.close();
+                writer = null;
+
+                try {
+                    Files.move(tempFile.toPath(), write.file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile.toPath(), write.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                writtenSequences.put(write.file, write.sequence);
+
+                if (write.callback != null) {
+                    write.callback.run();
+                }
+            } catch (IOException e) {
+                FMLLog.severe("[Popular] Failed to save " + write.file.getName() + ": " + e.getMessage());
+            } finally {
+                if (writer != null) {
+                    try {
+                        writer.close();
+                    } catch (IOException e) {
+                        // Ignore
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.pop.pvp;
 
+import com.pop.pvp.ui.DrawQueue;
+import com.pop.pvp.ui.TextMetrics;
 import com.pop.pvp.ui.UIUtils;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.ScaledResolution;
@@ -8,7 +10,6 @@ import net.minecraftforge.client.event.RenderGameOverlayEvent;
 import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -23,9 +24,35 @@ import java.util.List;
  */
 public class HUDOverlay {
     private final ConfigManager configManager;
+    private final ModuleRegistry moduleRegistry;
     
-    public HUDOverlay(ConfigManager configManager) {
+    // Mod list layout, rebuilt only when a module is toggled or fonts reload
+    private int layoutVersion = -1;
+    private int metricsGeneration = -1;
+    private List<ModuleDescriptor> enabledMods;
+    private int[] textWidths;
+    private int maxWidth;
+    
+    public HUDOverlay(ConfigManager configManager, ModuleRegistry moduleRegistry) {
         this.configManager = configManager;
+        this.moduleRegistry = moduleRegistry;
+    }
+    
+    /**
+     * Re-measures the enabled mod names. Widths stay valid until the list changes.
+     */
+    private void updateLayout(Minecraft mc) {
+        enabledMods = moduleRegistry.getEnabled();
+        textWidths = new int[enabledMods.size()];
+        maxWidth = 0;
+        for (int i = 0; i < textWidths.length; i++) {
+            textWidths[i] = TextMetrics.getWidth(enabledMods.get(i).getName());
+            if (textWidths[i] > maxWidth) {
+                maxWidth = textWidths[i];
+            }
+        }
+        layoutVersion = moduleRegistry.getEnabledVersion();
+        metricsGeneration = TextMetrics.getGeneration();
     }
     
     @SubscribeEvent(priority = EventPriority.NORMAL)
@@ -40,20 +67,35 @@ public class HUDOverlay {
         }
         
         ScaledResolution scaled = new ScaledResolution(mc);
-        int accentColor = configManager.getAccentColor();
+        ConfigSnapshot config = configManager.getSnapshot();
+        int accentColor = config.accentColor;
+        
+        // Version text, the list's shadow and background, and all names in one batch:
+        // one draw call for the shapes, then one text pass
+        DrawQueue.begin();
         
         // Draw mod name and version in top-left if enabled
-        if (configManager.getConfig().showVersion) {
+        if (config.showVersion) {
             drawVersionDisplay(mc, scaled, accentColor);
         }
         
-        // Get list of enabled mods
-        List<String> enabledMods = getEnabledMods();
+        // Get list of enabled mods (measured once per change)
+        if (layoutVersion != moduleRegistry.getEnabledVersion() || metricsGeneration != TextMetrics.getGeneration()) {
+            updateLayout(mc);
+        }
         
-        if (enabledMods.isEmpty()) {
-            return; // Don't show anything if no mods are enabled
+        // Don't show the list if no mods are enabled
+        if (!enabledMods.isEmpty()) {
+            drawModList(mc, scaled, accentColor);
         }
         
+        DrawQueue.end();
+    }
+    
+    /**
+     * Draws the enabled mods in a box in the top-right corner of the screen.
+     */
+    private void drawModList(Minecraft mc, ScaledResolution scaled, int accentColor) {
         int screenWidth = scaled.getScaledWidth();
         
         // Position in top right corner with padding (Wurst style)
@@ -64,16 +106,7 @@ public class HUDOverlay {
         int lineHeight = 11;
         
         // Calculate dimensions needed for the mod list
-        int maxWidth = 0;
-        int totalHeight = 0;
-        
-        for (String modName : enabledMods) {
-            int width = mc.fontRendererObj.getStringWidth(modName);
-            if (width > maxWidth) {
-                maxWidth = width;
-            }
-            totalHeight += lineHeight;
-        }
+        int totalHeight = enabledMods.size() * lineHeight;
         
         // Add padding around the text
         int boxWidth = maxWidth + (boxPadding * 2);
@@ -94,43 +127,16 @@ public class HUDOverlay {
         
         // Draw mod names (right-aligned) with accent color
         int currentY = boxY + boxPadding;
-        for (String modName : enabledMods) {
-            int textX = boxX + boxWidth - boxPadding - mc.fontRendererObj.getStringWidth(modName);
+        for (int i = 0; i < enabledMods.size(); i++) {
+            String modName = enabledMods.get(i).getName();
+            int textX = boxX + boxWidth - boxPadding - textWidths[i];
             // Use accent color (same blue as mod menu) instead of white
             int textColor = accentColor | 0xFF000000; // Ensure full opacity
-            mc.fontRendererObj.drawString(modName, textX, currentY, textColor);
+            UIUtils.drawString(mc.fontRendererObj, modName, textX, currentY, textColor);
             currentY += lineHeight;
         }
     }
     
-    private List<String> getEnabledMods() {
-        List<String> enabledMods = new ArrayList<String>();
-        
-        // Check auto-clicker
-        if (configManager.getConfig().autoClickerEnabled) {
-            // Use accent color for enabled mods (same blue as mod menu)
-            enabledMods.add("Auto-Clicker");
-        }
-        
-        // Check sprint
-        if (configManager.getConfig().sprintEnabled) {
-            enabledMods.add("Sprint");
-        }
-        
-        // Check chest ESP
-        if (configManager.getConfig().chestESPEnabled) {
-            enabledMods.add("Chest ESP");
-        }
-        
-        // Add more mods here as they are created
-        // Example:
-        // if (configManager.getConfig().someOtherModEnabled) {
-        //     enabledMods.add("Some Other Mod");
-        // }
-        
-        return enabledMods;
-    }
-    
     /**
      * Draws the mod name and version in the top-left corner of the screen.
      */
@@ -142,9 +148,9 @@ public class HUDOverlay {
         String modVersion = "v" + com.pop.pvp.PopPvPMod.VERSION;
         
         // Draw mod name
-        mc.fontRendererObj.drawString(modName, topLeftX, topLeftY, 0xFFFFFF);
+        UIUtils.drawString(mc.fontRendererObj, modName, topLeftX, topLeftY, 0xFFFFFF);
         
         // Draw version below name
-        mc.fontRendererObj.drawString(modVersion, topLeftX, topLeftY + 12, 0xAAAAAA);
+        UIUtils.drawString(mc.fontRendererObj, modVersion, topLeftX, topLeftY + 12, 0xAAAAAA);
     }
 }
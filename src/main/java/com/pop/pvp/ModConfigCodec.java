@@ -0,0 +1,188 @@
+package com.pop.pvp;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Streaming JSON codec for {@link ConfigManager.ModConfig}.
+ * Reads and writes fields directly - no reflection and no intermediate tree.
+ *
+ * Output is byte-for-byte what the pretty-printing Gson produced before:
+ * fields in declaration order, two-space indent, null layouts omitted. The profile
+ * name is only written when it is not the default profile.
+ * Keep the field order here in sync with ModConfig when adding fields.
+ */
+public final class ModConfigCodec {
+    private static final String INDENT = "  ";
+
+    private ModConfigCodec() {
+    }
+
+    /**
+     * Parses a config. Unknown keys are skipped and missing keys keep their defaults.
+     */
+    public static ConfigManager.ModConfig read(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        reader.setLenient(true); // Same leniency Gson.fromJson uses
+
+        ConfigManager.ModConfig config = new ConfigManager.ModConfig();
+        try {
+            if (reader.peek() == JsonToken.END_DOCUMENT) {
+                return null; // Empty file
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+
+                // Null on a primitive keeps the default, matching Gson
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+
+                if ("autoClickerEnabled".equals(name)) {
+                    config.autoClickerEnabled = reader.nextBoolean();
+                } else if ("autoClickerMinCPS".equals(name)) {
+                    config.autoClickerMinCPS = reader.nextDouble();
+                } else if ("autoClickerMaxCPS".equals(name)) {
+                    config.autoClickerMaxCPS = reader.nextDouble();
+                } else if ("sprintEnabled".equals(name)) {
+                    config.sprintEnabled = reader.nextBoolean();
+                } else if ("chestESPEnabled".equals(name)) {
+                    config.chestESPEnabled = reader.nextBoolean();
+                } else if ("chestESPRed".equals(name)) {
+                    config.chestESPRed = reader.nextInt();
+                } else if ("chestESPGreen".equals(name)) {
+                    config.chestESPGreen = reader.nextInt();
+                } else if ("chestESPBlue".equals(name)) {
+                    config.chestESPBlue = reader.nextInt();
+                } else if ("chestESPRange".equals(name)) {
+                    config.chestESPRange = reader.nextInt();
+                } else if ("chestESPOutline".equals(name)) {
+                    config.chestESPOutline = reader.nextBoolean();
+                } else if ("toggleKey".equals(name)) {
+                    config.toggleKey = reader.nextInt();
+                } else if ("showVersion".equals(name)) {
+                    config.showVersion = reader.nextBoolean();
+                } else if ("accentColorRed".equals(name)) {
+                    config.accentColorRed = reader.nextInt();
+                } else if ("accentColorGreen".equals(name)) {
+                    config.accentColorGreen = reader.nextInt();
+                } else if ("accentColorBlue".equals(name)) {
+                    config.accentColorBlue = reader.nextInt();
+                } else if ("combatWindowLayout".equals(name)) {
+                    config.combatWindowLayout = readLayout(reader);
+                } else if ("renderWindowLayout".equals(name)) {
+                    config.renderWindowLayout = readLayout(reader);
+                } else if ("movementWindowLayout".equals(name)) {
+                    config.movementWindowLayout = readLayout(reader);
+                } else if ("clientWindowLayout".equals(name)) {
+                    config.clientWindowLayout = readLayout(reader);
+                } else if ("profile".equals(name)) {
+                    config.profile = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException e) {
+            // Wrong token type, e.g. a string where a number was expected
+            throw new IOException("Malformed config: " + e.getMessage(), e);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed config: " + e.getMessage(), e);
+        }
+        return config;
+    }
+
+    private static ConfigManager.WindowLayout readLayout(JsonReader reader) throws IOException {
+        ConfigManager.WindowLayout layout = new ConfigManager.WindowLayout();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+            } else if ("x".equals(name)) {
+                layout.x = reader.nextInt();
+            } else if ("y".equals(name)) {
+                layout.y = reader.nextInt();
+            } else if ("width".equals(name)) {
+                layout.width = reader.nextInt();
+            } else if ("height".equals(name)) {
+                layout.height = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return layout;
+    }
+
+    /**
+     * Writes a config in the same pretty-printed form as popular.json.
+     */
+    public static void write(ConfigManager.ModConfig config, Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.setIndent(INDENT);
+
+        writer.beginObject();
+        writer.name("autoClickerEnabled").value(config.autoClickerEnabled);
+        writer.name("autoClickerMinCPS").value(config.autoClickerMinCPS);
+        writer.name("autoClickerMaxCPS").value(config.autoClickerMaxCPS);
+        writer.name("sprintEnabled").value(config.sprintEnabled);
+        writer.name("chestESPEnabled").value(config.chestESPEnabled);
+        writer.name("chestESPRed").value(config.chestESPRed);
+        writer.name("chestESPGreen").value(config.chestESPGreen);
+        writer.name("chestESPBlue").value(config.chestESPBlue);
+        writer.name("chestESPRange").value(config.chestESPRange);
+        writer.name("chestESPOutline").value(config.chestESPOutline);
+        writer.name("toggleKey").value(config.toggleKey);
+        writer.name("showVersion").value(config.showVersion);
+        writer.name("accentColorRed").value(config.accentColorRed);
+        writer.name("accentColorGreen").value(config.accentColorGreen);
+        writer.name("accentColorBlue").value(config.accentColorBlue);
+        writeLayout(writer, "combatWindowLayout", config.combatWindowLayout);
+        writeLayout(writer, "renderWindowLayout", config.renderWindowLayout);
+        writeLayout(writer, "movementWindowLayout", config.movementWindowLayout);
+        writeLayout(writer, "clientWindowLayout", config.clientWindowLayout);
+        if (config.profile != null && !ConfigManager.DEFAULT_PROFILE.equals(config.profile)) {
+            // Omitted for the default profile, which a missing key reads back as
+            writer.name("profile").value(config.profile);
+        }
+        writer.endObject();
+        writer.flush();
+    }
+
+    private static void writeLayout(JsonWriter writer, String name, ConfigManager.WindowLayout layout) throws IOException {
+        if (layout == null) {
+            return; // Gson skips null fields by default
+        }
+        writer.name(name);
+        writer.beginObject();
+        writer.name("x").value(layout.x);
+        writer.name("y").value(layout.y);
+        writer.name("width").value(layout.width);
+        writer.name("height").value(layout.height);
+        writer.endObject();
+    }
+
+    /**
+     * Serializes a config to a string.
+     */
+    public static String toJson(ConfigManager.ModConfig config) {
+        StringWriter out = new StringWriter(1024);
+        try {
+            write(config, out);
+        } catch (IOException e) {
+            // StringWriter never throws
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+}
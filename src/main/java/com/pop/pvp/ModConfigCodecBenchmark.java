@@ -0,0 +1,85 @@
+package com.pop.pvp;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Standalone timing of popular.json reads and writes: reflective Gson, as the config
+ * was handled before, against {@link ModConfigCodec}. Not used by the mod.
+ * Run the main method with Gson and the mod classes on the classpath.
+ */
+final class ModConfigCodecBenchmark {
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 200000;
+
+    private ModConfigCodecBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        ConfigManager.ModConfig config = typicalConfig();
+        String json = ModConfigCodec.toJson(config);
+
+        // Results go into a checksum so the JIT can't drop the work
+        long checksum = 0;
+        for (int round = 0; round < 2; round++) {
+            boolean report = round == 1; // First round is warmup
+
+            long start = System.nanoTime();
+            for (int i = 0; i < (report ? ITERATIONS : WARMUP); i++) {
+                checksum += gson.toJson(config).length();
+            }
+            long gsonWrite = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < (report ? ITERATIONS : WARMUP); i++) {
+                checksum += ModConfigCodec.toJson(config).length();
+            }
+            long codecWrite = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < (report ? ITERATIONS : WARMUP); i++) {
+                checksum += gson.fromJson(json, ConfigManager.ModConfig.class).chestESPRed;
+            }
+            long gsonRead = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < (report ? ITERATIONS : WARMUP); i++) {
+                checksum += ModConfigCodec.read(new StringReader(json)).chestESPRed;
+            }
+            long codecRead = System.nanoTime() - start;
+
+            if (report) {
+                System.out.println(json.length() + " byte config, " + ITERATIONS + " iterations");
+                print("Gson write", gsonWrite);
+                print("Codec write", codecWrite);
+                print("Gson read", gsonRead);
+                print("Codec read", codecRead);
+            }
+        }
+        System.out.println("(checksum " + checksum + ")");
+    }
+
+    private static void print(String label, long nanos) {
+        System.out.println(String.format("%-12s %8.2f us/op", label, nanos / 1000.0 / ITERATIONS));
+    }
+
+    /**
+     * Defaults with every window moved, as after a few sessions of use.
+     */
+    private static ConfigManager.ModConfig typicalConfig() {
+        ConfigManager.ModConfig config = new ConfigManager.ModConfig();
+        config.autoClickerEnabled = true;
+        config.autoClickerMinCPS = 9.5;
+        config.autoClickerMaxCPS = 13.0;
+        config.chestESPEnabled = true;
+        config.combatWindowLayout = new ConfigManager.WindowLayout(10, 10, 120, 160);
+        config.renderWindowLayout = new ConfigManager.WindowLayout(140, 10, 120, 200);
+        config.movementWindowLayout = new ConfigManager.WindowLayout(270, 10, 120, 90);
+        config.clientWindowLayout = new ConfigManager.WindowLayout(400, 10, 120, 180);
+        return config;
+    }
+}
@@ -4,9 +4,12 @@ import com.pop.pvp.ui.*;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiScreen;
 import net.minecraft.client.gui.ScaledResolution;
+import org.lwjgl.input.Mouse;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -21,12 +24,16 @@ import java.util.Map;
  */
 public class ModMenuGUI extends GuiScreen {
     private final ConfigManager configManager;
+    private final ModuleRegistry moduleRegistry;
     private Map<String, Window> windows;
     private Animation openAnimation;
     private int accentColor;
+    private final List<ConfigListener> bindings = new ArrayList<ConfigListener>();
+    private final Map<String, ConfigManager.WindowLayout> defaultLayouts = new HashMap<String, ConfigManager.WindowLayout>();
     
-    public ModMenuGUI(ConfigManager configManager) {
+    public ModMenuGUI(ConfigManager configManager, ModuleRegistry moduleRegistry) {
         this.configManager = configManager;
+        this.moduleRegistry = moduleRegistry;
         this.windows = new HashMap<String, Window>();
         this.openAnimation = new Animation(0.0F, 15.0F);
         this.accentColor = configManager.getAccentColor();
@@ -51,7 +58,9 @@ public class ModMenuGUI extends GuiScreen {
     }
     
     private void createWindows(int screenWidth, int screenHeight) {
+        releaseWindows();
         windows.clear();
+        unbindAll(); // initGui runs again on resize
         
         // Default window positions (horizontal row, directly adjacent)
         int minWidth = 200; // Minimum window width (increased to fit slider text)
@@ -59,103 +68,111 @@ public class ModMenuGUI extends GuiScreen {
         int windowSpacing = 0; // No spacing between windows
         
         // Calculate starting X to center the windows horizontally
-        int windowCount = 4; // Combat, Render, Movement, Client
+        int windowCount = ModuleCategory.values().length + 1; // Categories + Client
         int totalWidth = (minWidth + windowSpacing) * windowCount - windowSpacing; // Total width of all windows
         int defaultX = (screenWidth - totalWidth) / 2;
         
-        // Combat Category Window
-        Window combatWindow = createCombatWindow(defaultX, defaultY, screenWidth, screenHeight);
-        windows.put("Combat", combatWindow);
-        
-        // Render Category Window (directly next to Combat)
-        Window renderWindow = createRenderWindow(defaultX + minWidth + windowSpacing, defaultY, screenWidth, screenHeight);
-        windows.put("Render", renderWindow);
-        
-        // Movement Category Window (directly next to Render)
-        Window movementWindow = createMovementWindow(defaultX + (minWidth + windowSpacing) * 2, defaultY, screenWidth, screenHeight);
-        windows.put("Movement", movementWindow);
+        // One window per module category, then Client (directly adjacent)
+        int windowIndex = 0;
+        for (ModuleCategory category : ModuleCategory.values()) {
+            Window window = createCategoryWindow(category, defaultX + (minWidth + windowSpacing) * windowIndex, defaultY);
+            windows.put(category.getDisplayName(), window);
+            windowIndex++;
+        }
         
         // Client Category Window (directly next to Movement)
-        Window clientWindow = createClientWindow(defaultX + (minWidth + windowSpacing) * 3, defaultY, screenWidth, screenHeight);
+        Window clientWindow = createClientWindow(defaultX + (minWidth + windowSpacing) * windowIndex, defaultY, screenWidth, screenHeight);
         windows.put("Client", clientWindow);
-    }
-    
-    private void loadWindowPositions() {
-        ConfigManager.ModConfig config = configManager.getConfig();
         
-        // Load Combat window layout
-        if (config.combatWindowLayout != null) {
-            Window window = windows.get("Combat");
-            if (window != null) {
-                window.setPosition(config.combatWindowLayout.x, config.combatWindowLayout.y);
-                window.setSize(config.combatWindowLayout.width, config.combatWindowLayout.height);
-            }
+        // Where each window goes when its profile has no saved layout
+        defaultLayouts.clear();
+        for (Map.Entry<String, Window> entry : windows.entrySet()) {
+            Window window = entry.getValue();
+            defaultLayouts.put(entry.getKey(),
+                new ConfigManager.WindowLayout(window.getX(), window.getY(), window.getWidth(), window.getHeight()));
         }
         
-        // Load Render window layout
-        if (config.renderWindowLayout != null) {
-            Window window = windows.get("Render");
-            if (window != null) {
-                window.setPosition(config.renderWindowLayout.x, config.renderWindowLayout.y);
-                window.setSize(config.renderWindowLayout.width, config.renderWindowLayout.height);
+        // Move the windows when a profile switch or reload changes their layouts
+        Runnable moveWindows = new Runnable() {
+            @Override
+            public void run() {
+                loadWindowPositions();
             }
-        }
-        
-        // Load Movement window layout
-        if (config.movementWindowLayout != null) {
-            Window window = windows.get("Movement");
-            if (window != null) {
-                window.setPosition(config.movementWindowLayout.x, config.movementWindowLayout.y);
-                window.setSize(config.movementWindowLayout.width, config.movementWindowLayout.height);
+        };
+        bind(ConfigField.COMBAT_WINDOW_LAYOUT, moveWindows);
+        bind(ConfigField.RENDER_WINDOW_LAYOUT, moveWindows);
+        bind(ConfigField.MOVEMENT_WINDOW_LAYOUT, moveWindows);
+        bind(ConfigField.CLIENT_WINDOW_LAYOUT, moveWindows);
+    }
+    
+    /**
+     * Keeps a component in sync when a field is changed from outside the menu.
+     */
+    private void bind(ConfigField field, final Runnable sync) {
+        ConfigListener listener = new ConfigListener() {
+            @Override
+            public void onConfigChanged(ConfigField changed, ConfigSnapshot snapshot) {
+                sync.run();
             }
+        };
+        configManager.addListener(field, listener);
+        bindings.add(listener);
+    }
+    
+    private void unbindAll() {
+        for (ConfigListener listener : bindings) {
+            configManager.removeListener(listener);
         }
-        
-        // Load Client window layout
-        if (config.clientWindowLayout != null) {
-            Window window = windows.get("Client");
-            if (window != null) {
-                window.setPosition(config.clientWindowLayout.x, config.clientWindowLayout.y);
-                window.setSize(config.clientWindowLayout.width, config.clientWindowLayout.height);
-            }
+        bindings.clear();
+    }
+    
+    /**
+     * Places every window at its layout from the config, or at its default if it has none.
+     */
+    private void loadWindowPositions() {
+        ConfigManager.ModConfig config = configManager.getConfig();
+        applyLayout("Combat", config.combatWindowLayout);
+        applyLayout("Render", config.renderWindowLayout);
+        applyLayout("Movement", config.movementWindowLayout);
+        applyLayout("Client", config.clientWindowLayout);
+    }
+    
+    private void applyLayout(String name, ConfigManager.WindowLayout layout) {
+        Window window = windows.get(name);
+        if (window == null) {
+            return;
+        }
+        if (layout == null) {
+            layout = defaultLayouts.get(name);
         }
+        window.setPosition(layout.x, layout.y);
+        window.setSize(layout.width, layout.height);
     }
     
     private void saveWindowPositions() {
         ConfigManager.ModConfig config = configManager.getConfig();
         
-        // Save Combat window layout
-        Window combatWindow = windows.get("Combat");
-        if (combatWindow != null) {
-            config.combatWindowLayout = new ConfigManager.WindowLayout(
-                combatWindow.getX(), combatWindow.getY(),
-                combatWindow.getWidth(), combatWindow.getHeight());
-        }
-        
-        // Save Render window layout
-        Window renderWindow = windows.get("Render");
-        if (renderWindow != null) {
-            config.renderWindowLayout = new ConfigManager.WindowLayout(
-                renderWindow.getX(), renderWindow.getY(),
-                renderWindow.getWidth(), renderWindow.getHeight());
-        }
+        // Only replace layouts whose values actually changed
+        config.combatWindowLayout = layoutOf(windows.get("Combat"), config.combatWindowLayout);
+        config.renderWindowLayout = layoutOf(windows.get("Render"), config.renderWindowLayout);
+        config.movementWindowLayout = layoutOf(windows.get("Movement"), config.movementWindowLayout);
+        config.clientWindowLayout = layoutOf(windows.get("Client"), config.clientWindowLayout);
         
-        // Save Movement window layout
-        Window movementWindow = windows.get("Movement");
-        if (movementWindow != null) {
-            config.movementWindowLayout = new ConfigManager.WindowLayout(
-                movementWindow.getX(), movementWindow.getY(),
-                movementWindow.getWidth(), movementWindow.getHeight());
+        // No-op if nothing moved
+        configManager.saveConfig();
+    }
+    
+    /**
+     * Returns the saved layout if it still matches the window, otherwise a new layout.
+     */
+    private static ConfigManager.WindowLayout layoutOf(Window window, ConfigManager.WindowLayout saved) {
+        if (window == null) {
+            return saved;
         }
-        
-        // Save Client window layout
-        Window clientWindow = windows.get("Client");
-        if (clientWindow != null) {
-            config.clientWindowLayout = new ConfigManager.WindowLayout(
-                clientWindow.getX(), clientWindow.getY(),
-                clientWindow.getWidth(), clientWindow.getHeight());
+        if (saved != null && saved.matches(window.getX(), window.getY(), window.getWidth(), window.getHeight())) {
+            return saved;
         }
-        
-        configManager.saveConfig();
+        return new ConfigManager.WindowLayout(window.getX(), window.getY(), window.getWidth(), window.getHeight());
     }
     
     /**
@@ -163,255 +180,154 @@ public class ModMenuGUI extends GuiScreen {
      * Clears saved layouts from config.
      */
     private void resetWindowPositions() {
-        ScaledResolution scaled = new ScaledResolution(Minecraft.getMinecraft());
-        int screenWidth = scaled.getScaledWidth();
-        int screenHeight = scaled.getScaledHeight();
-        
-        // Calculate default positions (same as createWindows - horizontal row)
-        int minWidth = 200; // Increased to fit slider text
-        int defaultY = 50;
-        int windowSpacing = 0;
-        int windowCount = 4; // Combat, Render, Movement, Client
-        int totalWidth = (minWidth + windowSpacing) * windowCount - windowSpacing;
-        int defaultX = (screenWidth - totalWidth) / 2;
-        
-        // Reset Combat window
-        Window combatWindow = windows.get("Combat");
-        if (combatWindow != null) {
-            combatWindow.setPosition(defaultX, defaultY);
-            combatWindow.setSize(minWidth, 150);
-        }
-        
-        // Reset Render window
-        Window renderWindow = windows.get("Render");
-        if (renderWindow != null) {
-            renderWindow.setPosition(defaultX + minWidth + windowSpacing, defaultY);
-            renderWindow.setSize(minWidth, 150);
-        }
-        
-        // Reset Movement window
-        Window movementWindow = windows.get("Movement");
-        if (movementWindow != null) {
-            movementWindow.setPosition(defaultX + (minWidth + windowSpacing) * 2, defaultY);
-            movementWindow.setSize(minWidth, 150);
-        }
-        
-        // Reset Client window
-        Window clientWindow = windows.get("Client");
-        if (clientWindow != null) {
-            clientWindow.setPosition(defaultX + (minWidth + windowSpacing) * 3, defaultY);
-            clientWindow.setSize(minWidth, 150);
-        }
-        
-        // Clear saved layouts from config
+        // Clear saved layouts from config, then move the windows even if nothing was saved
         ConfigManager.ModConfig config = configManager.getConfig();
         config.combatWindowLayout = null;
         config.renderWindowLayout = null;
         config.movementWindowLayout = null;
         config.clientWindowLayout = null;
         configManager.saveConfig();
+        loadWindowPositions();
         
         // Play sound feedback
         Minecraft.getMinecraft().thePlayer.playSound("random.click", 0.5F, 1.2F);
     }
     
-    private Window createRenderWindow(int windowX, int windowY, int screenWidth, int screenHeight) {
-        int windowWidth = 200; // Increased width to match other windows
-        int windowHeight = 250; // Increased height for expandable settings
-        
-        Window window = new Window(windowX, windowY, windowWidth, windowHeight, "Render", accentColor);
-        
-        // Chest ESP (expandable with color settings)
-        final ExpandableMod[] chestESPRef = new ExpandableMod[1];
-        chestESPRef[0] = new ExpandableMod(
-            0, 0, windowWidth - 16,
-            "Chest ESP",
-            configManager.getConfig().chestESPEnabled,
-            new Runnable() {
-                @Override
-                public void run() {
-                    configManager.getConfig().chestESPEnabled = !configManager.getConfig().chestESPEnabled;
-                    configManager.saveConfig();
-                    chestESPRef[0].setValue(configManager.getConfig().chestESPEnabled);
-                }
-            },
-            accentColor
-        );
-        
-        // Red color slider
-        final Slider[] redSliderRef = new Slider[1];
-        redSliderRef[0] = new Slider(
-            0, 0, windowWidth - 16,
-            "Red",
-            configManager.getConfig().chestESPRed,
-            0.0, 255.0,
-            new Runnable() {
-                @Override
-                public void run() {
-                    configManager.getConfig().chestESPRed = (int)redSliderRef[0].getValue();
-                    configManager.saveConfig();
-                }
-            },
-            accentColor
-        );
-        chestESPRef[0].addSetting(redSliderRef[0]);
-        
-        // Green color slider
-        final Slider[] greenSliderRef = new Slider[1];
-        greenSliderRef[0] = new Slider(
-            0, 0, windowWidth - 16,
-            "Green",
-            configManager.getConfig().chestESPGreen,
-            0.0, 255.0,
-            new Runnable() {
-                @Override
-                public void run() {
-                    configManager.getConfig().chestESPGreen = (int)greenSliderRef[0].getValue();
-                    configManager.saveConfig();
-                }
-            },
-            accentColor
-        );
-        chestESPRef[0].addSetting(greenSliderRef[0]);
-        
-        // Blue color slider
-        final Slider[] blueSliderRef = new Slider[1];
-        blueSliderRef[0] = new Slider(
-            0, 0, windowWidth - 16,
-            "Blue",
-            configManager.getConfig().chestESPBlue,
-            0.0, 255.0,
-            new Runnable() {
-                @Override
-                public void run() {
-                    configManager.getConfig().chestESPBlue = (int)blueSliderRef[0].getValue();
-                    configManager.saveConfig();
-                }
-            },
-            accentColor
-        );
-        chestESPRef[0].addSetting(blueSliderRef[0]);
-        
-        window.addChild(chestESPRef[0]);
-        
-        // Placeholder for other render mods
-        // Example: Player ESP, Tracers, Nametags, etc.
+    private Window createCategoryWindow(ModuleCategory category, int windowX, int windowY) {
+        int windowWidth = 200; // Wide enough for slider text
         
+        Window window = new Window(windowX, windowY, windowWidth, category.getWindowHeight(), category.getDisplayName(), accentColor);
+        for (ModuleDescriptor module : moduleRegistry.getDescriptors(category)) {
+            window.addChild(createModuleComponent(module, windowWidth - 16));
+        }
         return window;
     }
     
-    private Window createMovementWindow(int windowX, int windowY, int screenWidth, int screenHeight) {
-        int windowWidth = 200; // Increased width to match other windows
-        int windowHeight = 150;
-        
-        Window window = new Window(windowX, windowY, windowWidth, windowHeight, "Movement", accentColor);
-        
-        // Sprint toggle
-        final ModToggle[] sprintRef = new ModToggle[1];
-        sprintRef[0] = new ModToggle(
-            0, 0, windowWidth - 16,
-            "Sprint",
-            configManager.getConfig().sprintEnabled,
-            new Runnable() {
+    /**
+     * A plain toggle for modules without settings, otherwise an expandable entry with a slider per setting.
+     */
+    private Component createModuleComponent(final ModuleDescriptor module, int width) {
+        if (module.getSettings().isEmpty()) {
+            final ModToggle[] toggleRef = new ModToggle[1];
+            toggleRef[0] = new ModToggle(
+                0, 0, width,
+                module.getName(),
+                moduleRegistry.isEnabled(module),
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        moduleRegistry.toggle(module);
+                        toggleRef[0].setValue(moduleRegistry.isEnabled(module));
+                    }
+                },
+                accentColor
+            );
+            bind(module.getEnabledField().field(), new Runnable() {
                 @Override
                 public void run() {
-                    configManager.getConfig().sprintEnabled = !configManager.getConfig().sprintEnabled;
-                    configManager.saveConfig();
-                    sprintRef[0].setValue(configManager.getConfig().sprintEnabled);
+                    toggleRef[0].setValue(moduleRegistry.isEnabled(module));
                 }
-            },
-            accentColor
-        );
-        window.addChild(sprintRef[0]);
-        
-        // Placeholder for other movement mods
-        // Example: Speed, Flight, etc.
-        
-        return window;
-    }
-    
-    private Window createCombatWindow(int windowX, int windowY, int screenWidth, int screenHeight) {
-        int windowWidth = 200; // Increased width to fit slider text
-        int windowHeight = 200; // Increased height for expandable settings
-        
-        Window window = new Window(windowX, windowY, windowWidth, windowHeight, "Combat", accentColor);
+            });
+            return toggleRef[0];
+        }
         
-        // Auto-Clicker (expandable with settings)
-        final ExpandableMod[] autoClickerRef = new ExpandableMod[1];
-        autoClickerRef[0] = new ExpandableMod(
-            0, 0, windowWidth - 16,
-            "Auto-Clicker",
-            configManager.getConfig().autoClickerEnabled,
+        final ExpandableMod[] modRef = new ExpandableMod[1];
+        modRef[0] = new ExpandableMod(
+            0, 0, width,
+            module.getName(),
+            moduleRegistry.isEnabled(module),
             new Runnable() {
                 @Override
                 public void run() {
-                    configManager.getConfig().autoClickerEnabled = !configManager.getConfig().autoClickerEnabled;
-                    configManager.saveConfig();
-                    autoClickerRef[0].setValue(configManager.getConfig().autoClickerEnabled);
+                    moduleRegistry.toggle(module);
+                    modRef[0].setValue(moduleRegistry.isEnabled(module));
                 }
             },
             accentColor
         );
-        
-        // Min CPS Slider
-        final Slider[] minCPSRef = new Slider[1];
-        minCPSRef[0] = new Slider(
-            0, 0, windowWidth - 16,
-            "Min CPS",
-            configManager.getConfig().autoClickerMinCPS,
-            1.0, 30.0,
-            new Runnable() {
-                @Override
-                public void run() {
-                    configManager.getConfig().autoClickerMinCPS = minCPSRef[0].getValue();
-                    // Ensure min doesn't exceed max
-                    if (configManager.getConfig().autoClickerMinCPS > configManager.getConfig().autoClickerMaxCPS) {
-                        configManager.getConfig().autoClickerMinCPS = configManager.getConfig().autoClickerMaxCPS;
-                        minCPSRef[0].setValue(configManager.getConfig().autoClickerMinCPS);
+        bind(module.getEnabledField().field(), new Runnable() {
+            @Override
+            public void run() {
+                modRef[0].setValue(moduleRegistry.isEnabled(module));
+            }
+        });
+        
+        // Sliders and their bindings are only built once the module is first expanded
+        final int settingWidth = width;
+        modRef[0].setSettingsFactory(new ExpandableMod.SettingsFactory() {
+            @Override
+            public void createSettings(ExpandableMod mod) {
+                for (final ModuleSetting setting : module.getSettings()) {
+                    if (setting.isToggle()) {
+                        mod.addSetting(createSettingToggle(setting, settingWidth));
+                        continue;
                     }
-                    configManager.saveConfig();
+                    final Slider[] sliderRef = new Slider[1];
+                    sliderRef[0] = new Slider(
+                        0, 0, settingWidth,
+                        setting.getLabel(),
+                        setting.get(configManager.getConfig()),
+                        setting.getMin(), setting.getMax(),
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                double value = setting.set(configManager.getConfig(), sliderRef[0].getValue());
+                                if (value != sliderRef[0].getValue()) {
+                                    sliderRef[0].setValue(value); // Clamped by a linked setting
+                                }
+                                configManager.saveConfig();
+                            }
+                        },
+                        accentColor
+                    );
+                    mod.addSetting(sliderRef[0]);
+                    
+                    bind(setting.getField().field(), new Runnable() {
+                        @Override
+                        public void run() {
+                            sliderRef[0].setValue(setting.get(configManager.getConfig()));
+                        }
+                    });
                 }
-            },
-            accentColor
-        );
-        autoClickerRef[0].addSetting(minCPSRef[0]);
-        
-        // Max CPS Slider
-        final Slider[] maxCPSRef = new Slider[1];
-        maxCPSRef[0] = new Slider(
-            0, 0, windowWidth - 16,
-            "Max CPS",
-            configManager.getConfig().autoClickerMaxCPS,
-            1.0, 30.0,
+            }
+        });
+        return modRef[0];
+    }
+    
+    /**
+     * Toggle for an on/off module setting, kept in sync with its field.
+     */
+    private ModToggle createSettingToggle(final ModuleSetting setting, int width) {
+        final ModToggle[] toggleRef = new ModToggle[1];
+        toggleRef[0] = new ModToggle(
+            0, 0, width,
+            setting.getLabel(),
+            setting.get(configManager.getConfig()) != 0,
             new Runnable() {
                 @Override
                 public void run() {
-                    configManager.getConfig().autoClickerMaxCPS = maxCPSRef[0].getValue();
-                    // Ensure max doesn't go below min
-                    if (configManager.getConfig().autoClickerMaxCPS < configManager.getConfig().autoClickerMinCPS) {
-                        configManager.getConfig().autoClickerMaxCPS = configManager.getConfig().autoClickerMinCPS;
-                        maxCPSRef[0].setValue(configManager.getConfig().autoClickerMaxCPS);
-                    }
+                    boolean on = setting.get(configManager.getConfig()) == 0;
+                    setting.set(configManager.getConfig(), on ? 1 : 0);
+                    toggleRef[0].setValue(on);
                     configManager.saveConfig();
                 }
             },
             accentColor
         );
-        autoClickerRef[0].addSetting(maxCPSRef[0]);
-        
-        window.addChild(autoClickerRef[0]);
-        
-        // Placeholder for other combat mods
-        // Example: KillAura, Criticals, etc.
-        
-        return window;
+        bind(setting.getField().field(), new Runnable() {
+            @Override
+            public void run() {
+                toggleRef[0].setValue(setting.get(configManager.getConfig()) != 0);
+            }
+        });
+        return toggleRef[0];
     }
     
     private Window createClientWindow(int windowX, int windowY, int screenWidth, int screenHeight) {
         int windowWidth = 150; // Minimum width
         int windowHeight = 150;
         
-        Window window = new Window(windowX, windowY, windowWidth, windowHeight, "Client", accentColor);
+        final Window window = new Window(windowX, windowY, windowWidth, windowHeight, "Client", accentColor);
         
         // Show Version toggle (simple highlighted text)
         final ModToggle[] showVersionRef = new ModToggle[1];
@@ -431,6 +347,13 @@ public class ModMenuGUI extends GuiScreen {
         );
         window.addChild(showVersionRef[0]);
         
+        bind(ConfigField.SHOW_VERSION, new Runnable() {
+            @Override
+            public void run() {
+                showVersionRef[0].setValue(configManager.getConfig().showVersion);
+            }
+        });
+        
         // Reset Position toggle
         final ModToggle[] resetPositionRef = new ModToggle[1];
         resetPositionRef[0] = new ModToggle(
@@ -449,14 +372,70 @@ public class ModMenuGUI extends GuiScreen {
         );
         window.addChild(resetPositionRef[0]);
         
+        // Profiles: "New Profile" acts as a button, each profile toggle as a radio button
+        final List<ModToggle> profileToggles = new ArrayList<ModToggle>();
+        final ModToggle[] newProfileRef = new ModToggle[1];
+        newProfileRef[0] = new ModToggle(
+            0, 0, windowWidth - 16,
+            "New Profile",
+            false, // Not a persistent state, just a button
+            new Runnable() {
+                @Override
+                public void run() {
+                    newProfileRef[0].setValue(false);
+                    addProfileToggle(window, profileToggles, configManager.createProfile());
+                    syncProfileToggles(profileToggles);
+                }
+            },
+            accentColor
+        );
+        window.addChild(newProfileRef[0]);
+        
+        for (String name : configManager.getProfileNames()) {
+            addProfileToggle(window, profileToggles, name);
+        }
+        
+        bind(ConfigField.PROFILE, new Runnable() {
+            @Override
+            public void run() {
+                syncProfileToggles(profileToggles);
+            }
+        });
+        
         return window;
     }
     
+    private void addProfileToggle(Window window, final List<ModToggle> profileToggles, final String name) {
+        final ModToggle toggle = new ModToggle(
+            0, 0, window.getWidth() - 16,
+            name,
+            name.equals(configManager.getConfig().profile),
+            new Runnable() {
+                @Override
+                public void run() {
+                    configManager.switchProfile(name);
+                    // Clicking the active profile must not untick it
+                    syncProfileToggles(profileToggles);
+                }
+            },
+            accentColor
+        );
+        profileToggles.add(toggle);
+        window.addChild(toggle);
+    }
+    
+    private void syncProfileToggles(List<ModToggle> profileToggles) {
+        String active = configManager.getConfig().profile;
+        for (ModToggle toggle : profileToggles) {
+            toggle.setValue(toggle.getLabel().equals(active));
+        }
+    }
+    
     
     @Override
     public void drawScreen(int mouseX, int mouseY, float partialTicks) {
         // Update open animation
-        openAnimation.update(partialTicks);
+        AnimationScheduler.tick(); // Steps every running UI animation, once per frame
         
         float openProgress = openAnimation.getValue();
         if (openProgress < 0.01F) return;
@@ -464,6 +443,9 @@ public class ModMenuGUI extends GuiScreen {
         // Get scaled resolution once for reuse
         ScaledResolution scaled = new ScaledResolution(Minecraft.getMinecraft());
         
+        // Queue drawing and draw it in state-grouped passes, one layer at a time
+        DrawQueue.begin();
+        
         // Draw very dark background overlay (Wurst/RusherHack style)
         int bgAlpha = (int)(openProgress * 200);
         int bgColor = UIUtils.color(bgAlpha, 0, 0, 0); // Black background
@@ -481,16 +463,22 @@ public class ModMenuGUI extends GuiScreen {
             ((accentColor >> 16) & 255) << 16 | 
             ((accentColor >> 8) & 255) << 8 | 
             (accentColor & 255);
-        fontRendererObj.drawString(modName, topLeftX, topLeftY, nameColor);
+        UIUtils.drawString(fontRendererObj, modName, topLeftX, topLeftY, nameColor);
         
         // Draw version below name (lighter gray)
         int versionColor = (int)(openProgress * 200) << 24 | 0xBBBBBB;
-        fontRendererObj.drawString(modVersion, topLeftX, topLeftY + 12, versionColor);
+        UIUtils.drawString(fontRendererObj, modVersion, topLeftX, topLeftY + 12, versionColor);
+        
+        DrawQueue.flush(); // Windows go on top of the background layer
         
-        // Render all windows (all visible at once)
+        // Render all windows (all visible at once), each its own layer since they can overlap.
+        // Idle windows away from the mouse skip their update; a clean window just redraws its cache.
         for (Window window : windows.values()) {
-            window.update(mouseX, mouseY, partialTicks);
+            if (window.needsUpdate() || window.isMouseOver(mouseX, mouseY)) {
+                window.update(mouseX, mouseY, partialTicks);
+            }
             window.render(mouseX, mouseY, partialTicks);
+            DrawQueue.flush();
         }
         
         // Draw close hint (fades in)
@@ -499,11 +487,13 @@ public class ModMenuGUI extends GuiScreen {
             int hintY = scaled.getScaledHeight() - 30;
             
             String hint = "Press ESC to close";
-            int hintWidth = fontRendererObj.getStringWidth(hint);
+            int hintWidth = TextMetrics.getWidth(hint);
             int hintColor = (int)(openProgress * 200) << 24 | 0xCCCCCC;
             
-            fontRendererObj.drawString(hint, centerX - hintWidth / 2, hintY, hintColor);
+            UIUtils.drawString(fontRendererObj, hint, centerX - hintWidth / 2, hintY, hintColor);
         }
+        
+        DrawQueue.end();
     }
     
     @Override
@@ -518,15 +508,34 @@ public class ModMenuGUI extends GuiScreen {
         super.mouseClicked(mouseX, mouseY, mouseButton);
     }
     
+    @Override
+    public void handleMouseInput() throws IOException {
+        super.handleMouseInput();
+        
+        // Scroll the window under the mouse
+        int wheel = Mouse.getEventDWheel();
+        if (wheel != 0) {
+            int mouseX = Mouse.getEventX() * this.width / this.mc.displayWidth;
+            int mouseY = this.height - Mouse.getEventY() * this.height / this.mc.displayHeight - 1;
+            for (Window window : windows.values()) {
+                if (window.mouseScrolled(mouseX, mouseY, wheel)) {
+                    break;
+                }
+            }
+        }
+    }
+    
     @Override
     protected void mouseReleased(int mouseX, int mouseY, int state) {
-        // Save window positions when mouse is released (after dragging)
-        saveWindowPositions();
-        
-        // Handle window interactions
+        // Save window positions only when a drag or resize ends
+        boolean moved = false;
         for (Window window : windows.values()) {
+            moved |= window.isDragging() || window.isResizing();
             window.mouseReleased(mouseX, mouseY, state);
         }
+        if (moved) {
+            saveWindowPositions();
+        }
         
         super.mouseReleased(mouseX, mouseY, state);
     }
@@ -547,6 +556,23 @@ public class ModMenuGUI extends GuiScreen {
         }
     }
     
+    @Override
+    public void onGuiClosed() {
+        super.onGuiClosed();
+        unbindAll();
+        releaseWindows();
+    }
+    
+    /**
+     * Frees the windows' cached framebuffers.
+     * Why: They are sized to the GUI scale, and initGui rebuilds the windows whenever that or the display changes.
+     */
+    private void releaseWindows() {
+        for (Window window : windows.values()) {
+            window.releaseFramebuffer();
+        }
+    }
+    
     @Override
     public boolean doesGuiPauseGame() {
         return false;
@@ -0,0 +1,54 @@
+package com.pop.pvp;
+
+import net.minecraftforge.common.MinecraftForge;
+
+/**
+ * Base class for toggleable mods. Metadata lives in the module's {@link ModuleDescriptor}.
+ * A module is registered on the Forge event bus only while it is enabled.
+ *
+ * Why: Forge dispatches every event to every registered handler. A disabled
+ * module that stays registered still pays for a call per tick or frame just to
+ * check its flag; unregistering it makes a disabled module cost nothing.
+ */
+public abstract class Module {
+    protected final ConfigManager configManager;
+    private boolean active;
+    
+    protected Module(ConfigManager configManager) {
+        this.configManager = configManager;
+    }
+    
+    /**
+     * Called before the module is registered on the event bus.
+     */
+    protected void onEnable() {
+    }
+    
+    /**
+     * Called after the module is unregistered from the event bus.
+     */
+    protected void onDisable() {
+    }
+    
+    /**
+     * Registers or unregisters the module. Called by {@link ModuleRegistry} on the client thread.
+     */
+    void setActive(boolean enabled) {
+        if (enabled == active) {
+            return;
+        }
+        active = enabled;
+        
+        if (enabled) {
+            onEnable();
+            MinecraftForge.EVENT_BUS.register(this);
+        } else {
+            MinecraftForge.EVENT_BUS.unregister(this);
+            onDisable();
+        }
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+}
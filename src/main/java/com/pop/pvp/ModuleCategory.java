@@ -0,0 +1,30 @@
+package com.pop.pvp;
+
+/**
+ * Menu categories. Each category gets its own window in the mod menu,
+ * laid out left to right in declaration order.
+ */
+public enum ModuleCategory {
+    COMBAT("Combat", 200),
+    RENDER("Render", 250),
+    MOVEMENT("Movement", 150);
+    
+    private final String displayName;
+    private final int windowHeight;
+    
+    ModuleCategory(String displayName, int windowHeight) {
+        this.displayName = displayName;
+        this.windowHeight = windowHeight;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    /**
+     * Default height of the category window. Saved window layouts override this.
+     */
+    public int getWindowHeight() {
+        return windowHeight;
+    }
+}
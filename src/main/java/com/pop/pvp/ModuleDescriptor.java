@@ -0,0 +1,55 @@
+package com.pop.pvp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cheap metadata for a module: name, category, enable flag and settings schema.
+ * Descriptors are discovered with {@link java.util.ServiceLoader}; list the
+ * implementation in META-INF/services/com.pop.pvp.ModuleDescriptor.
+ *
+ * Why: The menu and HUD only need metadata. The module itself, and every class
+ * it pulls in, is created the first time it is enabled, so modules that are
+ * never turned on cost neither init time nor heap.
+ *
+ * Implementations need a public no-arg constructor.
+ */
+public abstract class ModuleDescriptor {
+    private final String name;
+    private final ModuleCategory category;
+    private final ScalarField enabledField;
+    private final List<ModuleSetting> settings = new ArrayList<ModuleSetting>();
+    
+    protected ModuleDescriptor(String name, ModuleCategory category, ScalarField enabledField) {
+        this.name = name;
+        this.category = category;
+        this.enabledField = enabledField;
+    }
+    
+    protected void addSetting(ModuleSetting setting) {
+        settings.add(setting);
+    }
+    
+    /**
+     * Creates the module. Called at most once, on the client thread,
+     * the first time the module is enabled.
+     */
+    public abstract Module create(ConfigManager configManager, TickScheduler tickScheduler);
+    
+    public String getName() {
+        return name;
+    }
+    
+    public ModuleCategory getCategory() {
+        return category;
+    }
+    
+    public ScalarField getEnabledField() {
+        return enabledField;
+    }
+    
+    public List<ModuleSetting> getSettings() {
+        return Collections.unmodifiableList(settings);
+    }
+}
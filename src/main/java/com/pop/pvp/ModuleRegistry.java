@@ -0,0 +1,135 @@
+package com.pop.pvp;
+
+import net.minecraftforge.fml.common.FMLLog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * All module descriptors in discovery order, which is also the HUD and menu order.
+ * Creates each module the first time it is enabled and keeps its event bus
+ * registration in step with its config flag.
+ */
+public class ModuleRegistry {
+    private final ConfigManager configManager;
+    private final TickScheduler tickScheduler;
+    private final List<ModuleDescriptor> descriptors = new ArrayList<ModuleDescriptor>();
+    
+    // Module instances by descriptor index; null until first enabled
+    private Module[] modules = new Module[0];
+    
+    // Enabled descriptors, rebuilt on toggle
+    private List<ModuleDescriptor> enabled = Collections.emptyList();
+    private int enabledVersion;
+    
+    public ModuleRegistry(ConfigManager configManager, TickScheduler tickScheduler) {
+        this.configManager = configManager;
+        this.tickScheduler = tickScheduler;
+    }
+    
+    /**
+     * Registers every descriptor listed in META-INF/services.
+     */
+    public void discover() {
+        ServiceLoader<ModuleDescriptor> loader =
+            ServiceLoader.load(ModuleDescriptor.class, ModuleDescriptor.class.getClassLoader());
+        try {
+            for (ModuleDescriptor descriptor : loader) {
+                register(descriptor);
+            }
+        } catch (ServiceConfigurationError e) {
+            FMLLog.severe("[Popular] Failed to discover modules: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Adds a descriptor and creates and enables its module if its flag is set.
+     */
+    public void register(final ModuleDescriptor descriptor) {
+        final int index = descriptors.size();
+        descriptors.add(descriptor);
+        Module[] grown = new Module[index + 1];
+        System.arraycopy(modules, 0, grown, 0, index);
+        modules = grown;
+        
+        configManager.addListener(descriptor.getEnabledField().field(), new ConfigListener() {
+            @Override
+            public void onConfigChanged(ConfigField field, ConfigSnapshot snapshot) {
+                updateActive(index);
+                updateEnabled();
+            }
+        });
+        updateActive(index);
+        updateEnabled();
+    }
+    
+    private void updateActive(int index) {
+        ModuleDescriptor descriptor = descriptors.get(index);
+        boolean enabled = isEnabled(descriptor);
+        Module module = modules[index];
+        if (module == null) {
+            if (!enabled) {
+                return; // Never enabled - don't load it
+            }
+            module = descriptor.create(configManager, tickScheduler);
+            modules[index] = module;
+        }
+        module.setActive(enabled);
+    }
+    
+    private void updateEnabled() {
+        List<ModuleDescriptor> list = new ArrayList<ModuleDescriptor>();
+        for (ModuleDescriptor descriptor : descriptors) {
+            if (isEnabled(descriptor)) {
+                list.add(descriptor);
+            }
+        }
+        enabled = Collections.unmodifiableList(list);
+        enabledVersion++;
+    }
+    
+    public boolean isEnabled(ModuleDescriptor descriptor) {
+        return descriptor.getEnabledField().get(configManager.getConfig()) != 0;
+    }
+    
+    /**
+     * Flips a module's config flag and commits it. The module is created and
+     * (un)registered by the resulting change notification.
+     */
+    public void toggle(ModuleDescriptor descriptor) {
+        ConfigManager.ModConfig config = configManager.getConfig();
+        descriptor.getEnabledField().set(config, isEnabled(descriptor) ? 0 : 1);
+        configManager.saveConfig();
+    }
+    
+    public List<ModuleDescriptor> getDescriptors() {
+        return Collections.unmodifiableList(descriptors);
+    }
+    
+    public List<ModuleDescriptor> getDescriptors(ModuleCategory category) {
+        List<ModuleDescriptor> result = new ArrayList<ModuleDescriptor>();
+        for (ModuleDescriptor descriptor : descriptors) {
+            if (descriptor.getCategory() == category) {
+                result.add(descriptor);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Enabled modules in discovery order. Does not allocate.
+     */
+    public List<ModuleDescriptor> getEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Bumped whenever the enabled list changes, so callers can cache derived layout.
+     */
+    public int getEnabledVersion() {
+        return enabledVersion;
+    }
+}
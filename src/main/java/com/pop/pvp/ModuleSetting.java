@@ -0,0 +1,92 @@
+package com.pop.pvp;
+
+/**
+ * A numeric setting of a module, shown as a slider in the mod menu,
+ * or an on/off setting backed by a boolean field, shown as a toggle.
+ * The value is stored in a config field, so it is persisted and reported
+ * to listeners like any other field.
+ */
+public class ModuleSetting {
+    private final String label;
+    private final ScalarField field;
+    private final double min;
+    private final double max;
+    private ScalarField atLeast;
+    private ScalarField atMost;
+    private final boolean toggle;
+    
+    public ModuleSetting(String label, ScalarField field, double min, double max) {
+        this.label = label;
+        this.field = field;
+        this.min = min;
+        this.max = max;
+        this.toggle = false;
+    }
+    
+    /**
+     * On/off setting. The field reads 1 when on and 0 when off.
+     */
+    public ModuleSetting(String label, ScalarField field) {
+        this.label = label;
+        this.field = field;
+        this.min = 0.0;
+        this.max = 1.0;
+        this.toggle = true;
+    }
+    
+    /**
+     * Keeps this setting from going below another field, e.g. max CPS never below min CPS.
+     */
+    public ModuleSetting atLeast(ScalarField other) {
+        this.atLeast = other;
+        return this;
+    }
+    
+    /**
+     * Keeps this setting from going above another field.
+     */
+    public ModuleSetting atMost(ScalarField other) {
+        this.atMost = other;
+        return this;
+    }
+    
+    /**
+     * Stores a new value, clamped to the linked fields.
+     *
+     * @return The value actually stored
+     */
+    public double set(ConfigManager.ModConfig config, double value) {
+        if (atLeast != null && value < atLeast.get(config)) {
+            value = atLeast.get(config);
+        }
+        if (atMost != null && value > atMost.get(config)) {
+            value = atMost.get(config);
+        }
+        field.set(config, value);
+        return field.get(config);
+    }
+    
+    public double get(ConfigManager.ModConfig config) {
+        return field.get(config);
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    public ScalarField getField() {
+        return field;
+    }
+    
+    public double getMin() {
+        return min;
+    }
+    
+    public double getMax() {
+        return max;
+    }
+    
+    public boolean isToggle() {
+        return toggle;
+    }
+}
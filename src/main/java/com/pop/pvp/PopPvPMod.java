@@ -1,5 +1,7 @@
 package com.pop.pvp;
 
+import com.pop.pvp.ui.TextMetrics;
+import net.minecraft.client.Minecraft;
 import net.minecraft.client.settings.KeyBinding;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.client.registry.ClientRegistry;
@@ -18,7 +20,8 @@ public class PopPvPMod {
     public static final String VERSION = "1.0";
     
     private ConfigManager configManager;
-    private AutoClicker autoClicker;
+    private ModuleRegistry moduleRegistry;
+    private TickScheduler tickScheduler;
     public static KeyBinding menuKeyBinding;
     
     @EventHandler
@@ -26,6 +29,15 @@ public class PopPvPMod {
         // Load config
         configManager = new ConfigManager(event.getModConfigurationDirectory());
         configManager.loadConfig();
+        configManager.startWatcher(); // Hot reload popular.json on external edits
+
+        // Write any config change still waiting in the background writer
+        Runtime.getRuntime().addShutdownHook(new Thread("Popular Config Flush") {
+            @Override
+            public void run() {
+                configManager.flush();
+            }
+        });
     }
     
     @EventHandler
@@ -37,20 +49,20 @@ public class PopPvPMod {
         // Register this class to handle key input
         MinecraftForge.EVENT_BUS.register(this);
         
-        // Initialize auto-clicker
-        autoClicker = new AutoClicker(configManager);
-        MinecraftForge.EVENT_BUS.register(autoClicker);
+        // Single client tick subscriber shared by all tick tasks
+        tickScheduler = new TickScheduler();
+        MinecraftForge.EVENT_BUS.register(tickScheduler);
         
-        // Initialize sprint mod
-        Sprint sprint = new Sprint(configManager);
-        MinecraftForge.EVENT_BUS.register(sprint);
+        // Modules are listed in META-INF/services, created on first enable,
+        // and registered on the event bus only while enabled
+        moduleRegistry = new ModuleRegistry(configManager, tickScheduler);
+        moduleRegistry.discover();
         
-        // Initialize chest ESP
-        ChestESP chestESP = new ChestESP(configManager);
-        MinecraftForge.EVENT_BUS.register(chestESP);
+        // Cached text widths are dropped whenever resources reload
+        TextMetrics.registerReloadListener(Minecraft.getMinecraft());
         
         // Initialize HUD overlay
-        HUDOverlay hudOverlay = new HUDOverlay(configManager);
+        HUDOverlay hudOverlay = new HUDOverlay(configManager, moduleRegistry);
         MinecraftForge.EVENT_BUS.register(hudOverlay);
         
         // Initialize main menu splash text override
@@ -65,7 +77,7 @@ public class PopPvPMod {
         // Open mod menu when Up Arrow is pressed
         if (menuKeyBinding.isPressed()) {
             net.minecraft.client.Minecraft.getMinecraft().displayGuiScreen(
-                new ModMenuGUI(configManager)
+                new ModMenuGUI(configManager, moduleRegistry)
             );
         }
     }
@@ -73,5 +85,13 @@ public class PopPvPMod {
     public ConfigManager getConfigManager() {
         return configManager;
     }
+    
+    public ModuleRegistry getModuleRegistry() {
+        return moduleRegistry;
+    }
+    
+    public TickScheduler getTickScheduler() {
+        return tickScheduler;
+    }
 }
 
@@ -0,0 +1,198 @@
+package com.pop.pvp;
+
+import com.pop.pvp.ConfigManager.ModConfig;
+
+/**
+ * The {@link ConfigField}s that hold a single number or boolean, readable and writable as a double.
+ * Module enable flags and settings take these, so only scalar fields can be edited generically.
+ */
+public enum ScalarField {
+    AUTO_CLICKER_ENABLED(ConfigField.AUTO_CLICKER_ENABLED) {
+        @Override
+        public double get(ModConfig config) {
+            return config.autoClickerEnabled ? 1 : 0;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.autoClickerEnabled = value != 0;
+        }
+    },
+    AUTO_CLICKER_MIN_CPS(ConfigField.AUTO_CLICKER_MIN_CPS) {
+        @Override
+        public double get(ModConfig config) {
+            return config.autoClickerMinCPS;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.autoClickerMinCPS = value;
+        }
+    },
+    AUTO_CLICKER_MAX_CPS(ConfigField.AUTO_CLICKER_MAX_CPS) {
+        @Override
+        public double get(ModConfig config) {
+            return config.autoClickerMaxCPS;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.autoClickerMaxCPS = value;
+        }
+    },
+    SPRINT_ENABLED(ConfigField.SPRINT_ENABLED) {
+        @Override
+        public double get(ModConfig config) {
+            return config.sprintEnabled ? 1 : 0;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.sprintEnabled = value != 0;
+        }
+    },
+    CHEST_ESP_ENABLED(ConfigField.CHEST_ESP_ENABLED) {
+        @Override
+        public double get(ModConfig config) {
+            return config.chestESPEnabled ? 1 : 0;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.chestESPEnabled = value != 0;
+        }
+    },
+    CHEST_ESP_RED(ConfigField.CHEST_ESP_RED) {
+        @Override
+        public double get(ModConfig config) {
+            return config.chestESPRed;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.chestESPRed = (int) value;
+        }
+    },
+    CHEST_ESP_GREEN(ConfigField.CHEST_ESP_GREEN) {
+        @Override
+        public double get(ModConfig config) {
+            return config.chestESPGreen;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.chestESPGreen = (int) value;
+        }
+    },
+    CHEST_ESP_BLUE(ConfigField.CHEST_ESP_BLUE) {
+        @Override
+        public double get(ModConfig config) {
+            return config.chestESPBlue;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.chestESPBlue = (int) value;
+        }
+    },
+    CHEST_ESP_RANGE(ConfigField.CHEST_ESP_RANGE) {
+        @Override
+        public double get(ModConfig config) {
+            return config.chestESPRange;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.chestESPRange = (int) value;
+        }
+    },
+    CHEST_ESP_OUTLINE(ConfigField.CHEST_ESP_OUTLINE) {
+        @Override
+        public double get(ModConfig config) {
+            return config.chestESPOutline ? 1 : 0;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.chestESPOutline = value != 0;
+        }
+    },
+    TOGGLE_KEY(ConfigField.TOGGLE_KEY) {
+        @Override
+        public double get(ModConfig config) {
+            return config.toggleKey;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.toggleKey = (int) value;
+        }
+    },
+    SHOW_VERSION(ConfigField.SHOW_VERSION) {
+        @Override
+        public double get(ModConfig config) {
+            return config.showVersion ? 1 : 0;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.showVersion = value != 0;
+        }
+    },
+    ACCENT_COLOR_RED(ConfigField.ACCENT_COLOR_RED) {
+        @Override
+        public double get(ModConfig config) {
+            return config.accentColorRed;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.accentColorRed = (int) value;
+        }
+    },
+    ACCENT_COLOR_GREEN(ConfigField.ACCENT_COLOR_GREEN) {
+        @Override
+        public double get(ModConfig config) {
+            return config.accentColorGreen;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.accentColorGreen = (int) value;
+        }
+    },
+    ACCENT_COLOR_BLUE(ConfigField.ACCENT_COLOR_BLUE) {
+        @Override
+        public double get(ModConfig config) {
+            return config.accentColorBlue;
+        }
+
+        @Override
+        public void set(ModConfig config, double value) {
+            config.accentColorBlue = (int) value;
+        }
+    };
+
+    private final ConfigField field;
+
+    ScalarField(ConfigField field) {
+        this.field = field;
+    }
+
+    /**
+     * The config field this value is stored in, for listeners and diffs.
+     */
+    public ConfigField field() {
+        return field;
+    }
+
+    /**
+     * Reads the field as a number; booleans read as 0 or 1.
+     */
+    public abstract double get(ModConfig config);
+
+    /**
+     * Writes the field from a number. Ints are truncated; booleans are true for non-zero.
+     */
+    public abstract void set(ModConfig config, double value);
+}
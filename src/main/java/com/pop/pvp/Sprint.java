@@ -1,49 +1,46 @@
 package com.pop.pvp;
 
 import net.minecraft.client.Minecraft;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 
 /**
  * Sprint mod that keeps sprint enabled when toggled on.
  */
-public class Sprint {
-    private final ConfigManager configManager;
+public class Sprint extends Module implements TickScheduler.Task {
+    private final TickScheduler tickScheduler;
     
-    public Sprint(ConfigManager configManager) {
-        this.configManager = configManager;
-    }
-    
-    @SubscribeEvent
-    public void onClientTick(TickEvent.ClientTickEvent event) {
-        if (event.phase != TickEvent.Phase.END) {
-            return;
+    public static class Descriptor extends ModuleDescriptor {
+        public Descriptor() {
+            super("Sprint", ModuleCategory.MOVEMENT, ScalarField.SPRINT_ENABLED);
         }
         
-        Minecraft mc = Minecraft.getMinecraft();
-        if (mc == null || mc.theWorld == null || mc.thePlayer == null) {
-            return;
+        @Override
+        public Module create(ConfigManager configManager, TickScheduler tickScheduler) {
+            return new Sprint(configManager, tickScheduler);
         }
-        
-        // Only work when in-game and window is focused
-        if (!mc.inGameHasFocus) {
-            return;
-        }
-        
-        // Check if sprint mod is enabled
-        if (!configManager.getConfig().sprintEnabled) {
-            return;
-        }
-        
-        // Don't sprint if a GUI is open
-        if (mc.currentScreen != null) {
-            return;
-        }
-        
+    }
+    
+    public Sprint(ConfigManager configManager, TickScheduler tickScheduler) {
+        super(configManager);
+        this.tickScheduler = tickScheduler;
+    }
+    
+    @Override
+    protected void onEnable() {
+        // Only in-game, focused and without a GUI open
+        tickScheduler.schedule(this, TickEvent.Phase.END, TickScheduler.GUARD_IN_GAME);
+    }
+    
+    @Override
+    protected void onDisable() {
+        tickScheduler.cancel(this);
+    }
+    
+    @Override
+    public void onTick(Minecraft mc) {
         // Keep sprint enabled
         if (mc.thePlayer.movementInput.moveForward > 0.0F && !mc.thePlayer.isSneaking()) {
             mc.thePlayer.setSprinting(true);
         }
     }
 }
-
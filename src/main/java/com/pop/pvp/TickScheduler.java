@@ -0,0 +1,145 @@
+package com.pop.pvp;
+
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+/**
+ * Single client tick subscriber that dispatches to scheduled tasks.
+ * The shared game-state guards are evaluated once per tick and each task
+ * only runs when the guards it asked for hold.
+ *
+ * Why: Every tick handler used to subscribe on its own and repeat the same
+ * world, player, focus and screen checks. One subscriber with a flat task
+ * array costs one event dispatch per phase, however many tasks there are.
+ */
+public class TickScheduler {
+    /** theWorld and thePlayer are present. */
+    public static final int GUARD_WORLD = 1;
+    /** The game window has input focus. */
+    public static final int GUARD_FOCUS = 1 << 1;
+    /** No GUI screen is open. */
+    public static final int GUARD_NO_SCREEN = 1 << 2;
+    /** In a world, focused and without a screen - what most gameplay tasks need. */
+    public static final int GUARD_IN_GAME = GUARD_WORLD | GUARD_FOCUS | GUARD_NO_SCREEN;
+    
+    /**
+     * Work run by the scheduler on the client thread.
+     */
+    public interface Task {
+        void onTick(Minecraft mc);
+    }
+    
+    private static class Entry {
+        final Task task;
+        final int divisor;
+        final int offset;
+        final int guards;
+        
+        Entry(Task task, int divisor, int offset, int guards) {
+            this.task = task;
+            this.divisor = divisor;
+            this.offset = offset;
+            this.guards = guards;
+        }
+    }
+    
+    private static final Entry[] NONE = new Entry[0];
+    
+    // Copy-on-write, so tasks can be (un)scheduled while a tick is dispatching
+    private Entry[] startTasks = NONE;
+    private Entry[] endTasks = NONE;
+    private int tickCount;
+    private int scheduledCount;
+    
+    /**
+     * Runs a task every tick in the given phase.
+     */
+    public void schedule(Task task, TickEvent.Phase phase, int guards) {
+        schedule(task, phase, 1, guards);
+    }
+    
+    /**
+     * Runs a task every divisor ticks in the given phase, when all requested guards hold.
+     * Tasks with the same divisor are staggered across ticks rather than all running together.
+     *
+     * @param guards Bitwise OR of GUARD_* constants, or 0 to always run
+     */
+    public void schedule(Task task, TickEvent.Phase phase, int divisor, int guards) {
+        if (divisor < 1) {
+            throw new IllegalArgumentException("divisor must be at least 1: " + divisor);
+        }
+        Entry entry = new Entry(task, divisor, scheduledCount++ % divisor, guards);
+        if (phase == TickEvent.Phase.START) {
+            startTasks = append(startTasks, entry);
+        } else {
+            endTasks = append(endTasks, entry);
+        }
+    }
+    
+    /**
+     * Removes a task from both phases. Does nothing if it is not scheduled.
+     */
+    public void cancel(Task task) {
+        startTasks = remove(startTasks, task);
+        endTasks = remove(endTasks, task);
+    }
+    
+    private static Entry[] append(Entry[] entries, Entry entry) {
+        Entry[] grown = new Entry[entries.length + 1];
+        System.arraycopy(entries, 0, grown, 0, entries.length);
+        grown[entries.length] = entry;
+        return grown;
+    }
+    
+    private static Entry[] remove(Entry[] entries, Task task) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].task == task) {
+                if (entries.length == 1) {
+                    return NONE;
+                }
+                Entry[] shrunk = new Entry[entries.length - 1];
+                System.arraycopy(entries, 0, shrunk, 0, i);
+                System.arraycopy(entries, i + 1, shrunk, i, entries.length - i - 1);
+                return shrunk;
+            }
+        }
+        return entries;
+    }
+    
+    @SubscribeEvent
+    public void onClientTick(TickEvent.ClientTickEvent event) {
+        Entry[] tasks;
+        if (event.phase == TickEvent.Phase.START) {
+            tickCount++;
+            tasks = startTasks;
+        } else {
+            tasks = endTasks;
+        }
+        if (tasks.length == 0) {
+            return;
+        }
+        
+        Minecraft mc = Minecraft.getMinecraft();
+        int state = 0;
+        if (mc.theWorld != null && mc.thePlayer != null) {
+            state |= GUARD_WORLD;
+        }
+        if (mc.inGameHasFocus) {
+            state |= GUARD_FOCUS;
+        }
+        if (mc.currentScreen == null) {
+            state |= GUARD_NO_SCREEN;
+        }
+        
+        for (Entry entry : tasks) {
+            if ((entry.guards & ~state) != 0) {
+                continue;
+            }
+            if (entry.divisor != 1 && (tickCount + entry.offset) % entry.divisor != 0) {
+                continue;
+            }
+            entry.task.onTick(mc);
+        }
+    }
+}
@@ -3,12 +3,37 @@ package com.pop.pvp.ui;
 /**
  * Animation system for smooth UI transitions.
  * Handles open/close animations and hover effects using easing functions.
+ *
+ * Animations are timed in real seconds and stepped by {@link AnimationScheduler},
+ * which only holds them while they are moving. Higher speed means a shorter
+ * animation; the easing curve comes from a precomputed table.
+ *
+ * Why: Stepping by partial ticks made the speed depend on frame rate and tick phase,
+ * and every component paid for its animations every frame even when idle.
  */
 public class Animation {
+    // Ease-out cubic sampled at 256 steps, looked up with linear interpolation
+    private static final int EASE_STEPS = 256;
+    private static final float[] EASE_OUT_CUBIC = new float[EASE_STEPS + 1];
+    static {
+        for (int i = 0; i <= EASE_STEPS; i++) {
+            float inverse = 1.0F - (float)i / EASE_STEPS;
+            EASE_OUT_CUBIC[i] = 1.0F - inverse * inverse * inverse;
+        }
+    }
+    
+    // A full 0-1 transition lasts this many seconds divided by the speed
+    private static final float SECONDS_PER_SPEED = 2.5F;
+    
     private float currentValue;
+    private float startValue;
     private float targetValue;
     private float speed;
+    private float elapsed;
+    private float duration;
     private boolean animating;
+    private Runnable listener;
+    boolean scheduled; // Owned by AnimationScheduler
     
     public Animation(float initialValue, float speed) {
         this.currentValue = initialValue;
@@ -18,31 +43,53 @@ public class Animation {
     }
     
     /**
-     * Updates animation based on partial ticks.
-     * Called every frame to smoothly interpolate values.
-     * 
-     * @param partialTicks Frame interpolation value (0.0-1.0)
+     * Sets a callback run whenever the value changes, e.g. to mark the owner dirty.
      */
-    public void update(float partialTicks) {
-        if (animating) {
-            float delta = targetValue - currentValue;
-            if (Math.abs(delta) < 0.001F) {
-                currentValue = targetValue;
-                animating = false;
-            } else {
-                // Smooth interpolation using easing
-                float easedDelta = UIUtils.easeOutCubic(Math.min(1.0F, Math.abs(delta) * speed * partialTicks));
-                currentValue += delta * easedDelta;
-            }
+    public void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+    
+    /**
+     * Advances by real time. Returns false once the target is reached.
+     * Called by {@link AnimationScheduler} only.
+     */
+    boolean advance(float seconds) {
+        elapsed += seconds;
+        if (elapsed >= duration) {
+            currentValue = targetValue;
+            animating = false;
+        } else {
+            currentValue = startValue + (targetValue - startValue) * ease(elapsed / duration);
+        }
+        if (listener != null) {
+            listener.run();
         }
+        return animating;
+    }
+    
+    private static float ease(float t) {
+        float index = t * EASE_STEPS;
+        int i = (int)index;
+        if (i >= EASE_STEPS) {
+            return 1.0F;
+        }
+        return EASE_OUT_CUBIC[i] + (EASE_OUT_CUBIC[i + 1] - EASE_OUT_CUBIC[i]) * (index - i);
     }
     
     /**
      * Sets target value and starts animation.
+     * The duration scales with the distance, so reversing halfway takes half as long.
      */
     public void animateTo(float target) {
+        if (target == targetValue && (animating || currentValue == target)) {
+            return;
+        }
+        this.startValue = currentValue;
         this.targetValue = target;
+        this.elapsed = 0.0F;
+        this.duration = SECONDS_PER_SPEED / speed * Math.min(1.0F, Math.abs(target - currentValue));
         this.animating = true;
+        AnimationScheduler.schedule(this);
     }
     
     /**
@@ -51,7 +98,10 @@ public class Animation {
     public void setValue(float value) {
         this.currentValue = value;
         this.targetValue = value;
-        this.animating = false;
+        this.animating = false; // The scheduler drops it on its next tick
+        if (listener != null) {
+            listener.run();
+        }
     }
     
     public float getValue() {
@@ -70,4 +120,3 @@ public class Animation {
         this.speed = speed;
     }
 }
-
@@ -0,0 +1,61 @@
+package com.pop.pvp.ui;
+
+/**
+ * Steps every running {@link Animation} once per frame by the real time since the last frame.
+ * Animations join when they start and are dropped when they finish, so idle ones cost nothing.
+ *
+ * Call {@link #tick()} at the start of each frame that draws animated UI. Render thread only.
+ */
+public final class AnimationScheduler {
+    // Longer gaps (menu closed, game paused) resume the animation instead of skipping it
+    private static final long MAX_STEP_NANOS = 100000000L;
+    
+    private static Animation[] active = new Animation[16];
+    private static int activeCount;
+    private static long lastTick;
+    
+    private AnimationScheduler() {
+    }
+    
+    static void schedule(Animation animation) {
+        if (animation.scheduled) {
+            return;
+        }
+        if (activeCount == active.length) {
+            Animation[] grown = new Animation[active.length * 2];
+            System.arraycopy(active, 0, grown, 0, activeCount);
+            active = grown;
+        }
+        active[activeCount++] = animation;
+        animation.scheduled = true;
+    }
+    
+    /**
+     * Advances the running animations and retires the finished ones.
+     */
+    public static void tick() {
+        long now = System.nanoTime();
+        float seconds = lastTick == 0L ? 0.0F : Math.min(now - lastTick, MAX_STEP_NANOS) / 1.0E9F;
+        lastTick = now;
+        
+        // Listeners may start other animations; they are appended and stepped this tick too
+        int i = 0;
+        while (i < activeCount) {
+            Animation animation = active[i];
+            if (animation.isAnimating() && animation.advance(seconds)) {
+                i++;
+            } else {
+                animation.scheduled = false;
+                active[i] = active[--activeCount];
+                active[activeCount] = null;
+            }
+        }
+    }
+    
+    /**
+     * Number of animations currently running.
+     */
+    public static int getActiveCount() {
+        return activeCount;
+    }
+}
@@ -58,13 +58,13 @@ public class Button extends Component {
         }
         
         // Draw text (centered)
-        int textWidth = font.getStringWidth(text);
+        int textWidth = TextMetrics.getWidth(text);
         int textX = x + (width - textWidth) / 2;
         int textY = y + (height - 8) / 2;
         
         // Fade text color based on enabled state
         int finalTextColor = enabled ? textColor : 0x888888;
-        font.drawString(text, textX, textY, finalTextColor);
+        UIUtils.drawString(font, text, textX, textY, finalTextColor);
     }
     
     @Override
@@ -53,12 +53,12 @@ public class CategoryButton extends Component {
         }
         
         // Draw text (centered)
-        int textWidth = font.getStringWidth(label);
+        int textWidth = TextMetrics.getWidth(label);
         int textX = x + (width - textWidth) / 2;
         int textY = y + (height - 8) / 2;
         
         int textColor = selected ? 0xFFFFFF : (hoverProgress > 0.5F ? 0xFFFFFF : 0xCCCCCC);
-        font.drawString(label, textX, textY, textColor);
+        UIUtils.drawString(font, label, textX, textY, textColor);
     }
     
     @Override
@@ -4,6 +4,16 @@ package com.pop.pvp.ui;
  * Base class for all UI components.
  * Provides common functionality like position, size, and hover detection.
  * 
+ * Components form a retained tree: a change marks the component dirty and the
+ * flag propagates up through its parents to the {@link Window}, which redraws
+ * only then. Containers update a child only while it {@link #needsUpdate()} or
+ * is under the mouse, so idle subtrees are not visited.
+ * 
+ * Layout is a separate cached pass: {@link #arrange} measures a component and
+ * places its children, and render only reads the resulting rectangles. It runs
+ * again only after {@link #invalidateLayout()}, on a resize, expand/collapse,
+ * animation tick or content change.
+ * 
  * Why: Modular design allows reusable components and consistent behavior.
  */
 public abstract class Component {
@@ -12,18 +22,35 @@ public abstract class Component {
     protected boolean visible = true;
     protected boolean hovered = false;
     protected Animation hoverAnimation;
+    protected boolean dirty = true;
+    protected Component parent;
+    protected boolean layoutValid = false;
     
     public Component(int x, int y, int width, int height) {
         this.x = x;
         this.y = y;
         this.width = width;
         this.height = height;
-        this.hoverAnimation = new Animation(0.0F, 8.0F);
+        this.hoverAnimation = createAnimation(0.0F, 8.0F);
+    }
+    
+    /**
+     * Creates an animation that marks this component dirty whenever it steps.
+     */
+    protected Animation createAnimation(float initialValue, float speed) {
+        Animation animation = new Animation(initialValue, speed);
+        animation.setListener(new Runnable() {
+            @Override
+            public void run() {
+                markDirty();
+            }
+        });
+        return animation;
     }
     
     /**
-     * Updates component state (animations, hover detection).
-     * Called every frame before rendering.
+     * Updates component state (hover detection). Animations are stepped by {@link AnimationScheduler}.
+     * Called each frame before rendering while the component {@link #needsUpdate()} or is under the mouse.
      */
     public void update(int mouseX, int mouseY, float partialTicks) {
         if (!visible) return;
@@ -34,9 +61,26 @@ public abstract class Component {
         
         if (hovered != wasHovered) {
             hoverAnimation.animateTo(hovered ? 1.0F : 0.0F);
+            markDirty();
+        }
+    }
+    
+    /**
+     * Whether {@link #update} has work to do even with the mouse elsewhere:
+     * leaving hover, dragging and so on. Running animations don't count.
+     * Containers must also return true while any child does.
+     */
+    public boolean needsUpdate() {
+        return hovered;
+    }
+    
+    /**
+     * Updates a child if it is active or under the mouse; idle children are skipped.
+     */
+    protected static void updateChild(Component child, int mouseX, int mouseY, float partialTicks) {
+        if (child.needsUpdate() || child.isMouseOver(mouseX, mouseY)) {
+            child.update(mouseX, mouseY, partialTicks);
         }
-        
-        hoverAnimation.update(partialTicks);
     }
     
     /**
@@ -59,6 +103,88 @@ public abstract class Component {
     public void mouseReleased(int mouseX, int mouseY, int state) {
     }
     
+    /**
+     * Flags that the component looks different than when it was last drawn,
+     * along with every parent up to the window.
+     * A dirty component always has dirty parents, so the walk stops at the first one.
+     */
+    public void markDirty() {
+        for (Component component = this; component != null && !component.dirty; component = component.parent) {
+            component.dirty = true;
+        }
+    }
+    
+    public boolean isDirty() {
+        return dirty;
+    }
+    
+    /**
+     * Clears the flag once drawn. Containers also clear their dirty children;
+     * clean children have clean subtrees and are skipped.
+     */
+    protected void clearDirty() {
+        dirty = false;
+    }
+    
+    /**
+     * Attaches a child to this container so its changes reach the window.
+     */
+    protected void adopt(Component child) {
+        child.parent = this;
+        invalidateLayout();
+    }
+    
+    /**
+     * Preferred height at the given width. Fixed-size components keep their current height.
+     */
+    protected int measure(int width) {
+        return height;
+    }
+    
+    /**
+     * Gives the component its slot: position, width, and its measured height.
+     * Does nothing if the layout is still valid and the slot is unchanged.
+     * Unlike the setters this doesn't invalidate the parent, which is the one arranging.
+     */
+    public void arrange(int x, int y, int width) {
+        if (layoutValid && x == this.x && y == this.y && width == this.width) {
+            return;
+        }
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = measure(width);
+        arrangeChildren();
+        layoutValid = true;
+        markDirty();
+    }
+    
+    /**
+     * Lays out whatever is inside the bounds just assigned. Containers arrange their children here.
+     */
+    protected void arrangeChildren() {
+    }
+    
+    /**
+     * Moves the subtree without measuring it again, for dragging.
+     * Components that cache positions from layout must move them too.
+     */
+    protected void translate(int dx, int dy) {
+        x += dx;
+        y += dy;
+    }
+    
+    /**
+     * Requests a new layout of this component and its parents up to the window, and a redraw.
+     * An invalid component always has invalid parents, so the walk stops at the first one.
+     */
+    public void invalidateLayout() {
+        for (Component component = this; component != null && component.layoutValid; component = component.parent) {
+            component.layoutValid = false;
+        }
+        markDirty();
+    }
+    
     /**
      * Checks if mouse is over this component.
      */
@@ -75,13 +201,19 @@ public abstract class Component {
     public boolean isHovered() { return hovered; }
     
     public void setPosition(int x, int y) {
-        this.x = x;
-        this.y = y;
+        if (x != this.x || y != this.y) {
+            this.x = x;
+            this.y = y;
+            invalidateLayout();
+        }
     }
     
     public void setSize(int width, int height) {
-        this.width = width;
-        this.height = height;
+        if (width != this.width || height != this.height) {
+            this.width = width;
+            this.height = height;
+            invalidateLayout();
+        }
     }
     
     public void setVisible(boolean visible) {
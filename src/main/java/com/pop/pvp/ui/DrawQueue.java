@@ -0,0 +1,160 @@
+package com.pop.pvp.ui;
+
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.client.renderer.WorldVertexBufferUploader;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import org.lwjgl.opengl.GL11;
+
+/**
+ * Frame-scoped queue for UI drawing, grouped by GL state.
+ * Between {@link #begin()} and {@link #end()}, UIUtils queues rects and text here
+ * instead of drawing them. {@link #flush()} draws the queued layer in passes - all
+ * shader shapes in one call, all tessellated quads in one call, then all text - so
+ * state changes once per pass instead of once per primitive. Only one of the first
+ * two passes is used, depending on whether {@link RoundedRectShader} is available.
+ *
+ * Text always lands on top of the quads of its layer. Call {@link #flush()} between
+ * things that overlap, such as windows, to start a new layer.
+ *
+ * Why: Every rect used to be its own Tessellator draw with blend and texture toggles,
+ * and text in between forced the state back and forth.
+ *
+ * Client thread only.
+ */
+public final class DrawQueue {
+    private static final WorldRenderer shapes = new WorldRenderer(0x20000); // Grows as needed
+    private static final WorldRenderer quads = new WorldRenderer(0x20000);
+    private static final WorldVertexBufferUploader uploader = new WorldVertexBufferUploader();
+    
+    private static int depth; // begin() nesting
+    private static boolean drawingShapes; // shapes has begun and may hold vertices
+    private static boolean drawingQuads; // quads has begun and may hold vertices
+    
+    // Queued text, in submission order
+    private static FontRenderer[] textFonts = new FontRenderer[32];
+    private static String[] texts = new String[32];
+    private static int[] textCoords = new int[32 * 3]; // x, y, colour
+    private static int textCount;
+    
+    private DrawQueue() {
+    }
+    
+    /**
+     * Starts queueing. Calls nest; only the outermost {@link #end()} stops queueing.
+     */
+    public static void begin() {
+        depth++;
+    }
+    
+    /**
+     * Draws the current layer and, for the outermost call, stops queueing.
+     */
+    public static void end() {
+        flush();
+        if (depth > 0) {
+            depth--;
+        }
+    }
+    
+    public static boolean isActive() {
+        return depth > 0;
+    }
+    
+    /**
+     * Returns the buffer to append GL_QUADS {@link RoundedRectShader#FORMAT} vertices to.
+     * Only valid while queueing.
+     */
+    static WorldRenderer shapes() {
+        if (!drawingShapes) {
+            shapes.begin(GL11.GL_QUADS, RoundedRectShader.FORMAT);
+            drawingShapes = true;
+        }
+        return shapes;
+    }
+    
+    /**
+     * Returns the buffer to append GL_QUADS POSITION_COLOR vertices to.
+     * Only valid while queueing.
+     */
+    static WorldRenderer quads() {
+        if (!drawingQuads) {
+            quads.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_COLOR);
+            drawingQuads = true;
+        }
+        return quads;
+    }
+    
+    /**
+     * Queues text for the text pass. Only valid while queueing.
+     */
+    static void text(FontRenderer font, String text, int x, int y, int color) {
+        if (textCount == texts.length) {
+            int capacity = textCount * 2;
+            FontRenderer[] fonts = new FontRenderer[capacity];
+            String[] strings = new String[capacity];
+            int[] coords = new int[capacity * 3];
+            System.arraycopy(textFonts, 0, fonts, 0, textCount);
+            System.arraycopy(texts, 0, strings, 0, textCount);
+            System.arraycopy(textCoords, 0, coords, 0, textCount * 3);
+            textFonts = fonts;
+            texts = strings;
+            textCoords = coords;
+        }
+        textFonts[textCount] = font;
+        texts[textCount] = text;
+        textCoords[textCount * 3] = x;
+        textCoords[textCount * 3 + 1] = y;
+        textCoords[textCount * 3 + 2] = color;
+        textCount++;
+    }
+    
+    /**
+     * Draws everything queued so far - quads, then text - and starts a new layer.
+     */
+    public static void flush() {
+        boolean hasShapes = drawingShapes && finish(shapes);
+        boolean hasQuads = drawingQuads && finish(quads);
+        drawingShapes = false;
+        drawingQuads = false;
+        if (!hasShapes && !hasQuads && textCount == 0) {
+            return;
+        }
+        
+        RenderState.push();
+        RenderState.blendNormal();
+        if (hasShapes || hasQuads) {
+            RenderState.set(RenderState.BLEND, RenderState.TEXTURE_2D);
+        }
+        if (hasShapes) {
+            RoundedRectShader.bind();
+            uploader.draw(shapes); // Also resets the buffer
+            RoundedRectShader.unbind();
+        }
+        if (hasQuads) {
+            uploader.draw(quads);
+        }
+        if (textCount > 0) {
+            RenderState.set(RenderState.BLEND | RenderState.TEXTURE_2D, 0);
+            for (int i = 0; i < textCount; i++) {
+                textFonts[i].drawString(texts[i], textCoords[i * 3], textCoords[i * 3 + 1], textCoords[i * 3 + 2]);
+                textFonts[i] = null;
+                texts[i] = null;
+            }
+            textCount = 0;
+        }
+        RenderState.pop();
+    }
+    
+    /**
+     * Ends a buffer's vertex list. Returns false, after resetting it, if it is empty.
+     */
+    private static boolean finish(WorldRenderer buffer) {
+        buffer.finishDrawing();
+        if (buffer.getVertexCount() == 0) {
+            buffer.reset();
+            return false;
+        }
+        return true;
+    }
+}
@@ -9,6 +9,9 @@ import java.util.List;
 /**
  * Expandable mod component that shows settings when clicked.
  * Similar to Wurst/RusherHack expandable mods.
+ * 
+ * Settings can be supplied up front with {@link #addSetting} or built on first
+ * expand by a {@link SettingsFactory}, so collapsed modules cost nothing.
  */
 public class ExpandableMod extends Component {
     private String label;
@@ -18,9 +21,11 @@ public class ExpandableMod extends Component {
     private boolean expanded = false;
     private Animation expandAnimation;
     private List<Component> settings;
+    private SettingsFactory settingsFactory;
     
     private static final int BASE_HEIGHT = 12;
     private static final int SETTING_SPACING = 6;
+    private static final int SETTING_INDENT = 8;
     
     public ExpandableMod(int x, int y, int width, String label, boolean initialValue, Runnable onToggle, int accentColor) {
         super(x, y, width, BASE_HEIGHT);
@@ -29,19 +34,96 @@ public class ExpandableMod extends Component {
         this.onToggle = onToggle;
         this.accentColor = accentColor;
         this.expandAnimation = new Animation(0.0F, 10.0F);
+        this.expandAnimation.setListener(new Runnable() {
+            @Override
+            public void run() {
+                invalidateLayout(); // Height follows the animation
+            }
+        });
         this.settings = new ArrayList<Component>();
     }
     
     @Override
     public void update(int mouseX, int mouseY, float partialTicks) {
         super.update(mouseX, mouseY, partialTicks);
-        expandAnimation.update(partialTicks);
         
         // Update settings if expanded
         float expandProgress = expandAnimation.getValue();
         if (expandProgress > 0.1F) {
             for (Component setting : settings) {
-                setting.update(mouseX, mouseY, partialTicks);
+                updateChild(setting, mouseX, mouseY, partialTicks);
+            }
+        }
+    }
+    
+    /**
+     * Builds a module's settings the first time it is expanded.
+     */
+    public interface SettingsFactory {
+        void createSettings(ExpandableMod mod);
+    }
+    
+    public void setSettingsFactory(SettingsFactory settingsFactory) {
+        this.settingsFactory = settingsFactory;
+    }
+    
+    private void ensureSettings() {
+        if (settingsFactory != null) {
+            SettingsFactory factory = settingsFactory;
+            settingsFactory = null;
+            factory.createSettings(this);
+        }
+    }
+    
+    @Override
+    protected int measure(int width) {
+        float expandProgress = expandAnimation.getValue();
+        if (expandProgress <= 0.1F) {
+            return BASE_HEIGHT;
+        }
+        int totalSettingsHeight = 0;
+        for (Component setting : settings) {
+            totalSettingsHeight += setting.measure(width - SETTING_INDENT * 2) + SETTING_SPACING;
+        }
+        return BASE_HEIGHT + (int)(totalSettingsHeight * expandProgress);
+    }
+    
+    @Override
+    protected void arrangeChildren() {
+        int settingsY = y + BASE_HEIGHT + SETTING_SPACING;
+        for (Component setting : settings) {
+            setting.arrange(x + SETTING_INDENT, settingsY, width - SETTING_INDENT * 2);
+            settingsY += setting.getHeight() + SETTING_SPACING;
+        }
+    }
+    
+    @Override
+    protected void translate(int dx, int dy) {
+        super.translate(dx, dy);
+        for (Component setting : settings) {
+            setting.translate(dx, dy);
+        }
+    }
+    
+    @Override
+    public boolean needsUpdate() {
+        if (super.needsUpdate()) {
+            return true;
+        }
+        for (Component setting : settings) {
+            if (setting.needsUpdate()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    protected void clearDirty() {
+        super.clearDirty();
+        for (Component setting : settings) {
+            if (setting.isDirty()) {
+                setting.clearDirty();
             }
         }
     }
@@ -69,17 +151,17 @@ public class ExpandableMod extends Component {
         }
         
         // Draw label
-        font.drawString(label, x, y, textColor);
+        UIUtils.drawString(font, label, x, y, textColor);
         
         // Draw expand/collapse indicator (> or v)
         String indicator = expanded ? "v" : ">";
-        int indicatorX = x + font.getStringWidth(label) + 4;
-        font.drawString(indicator, indicatorX, y, 0xAAAAAA);
+        int indicatorX = x + TextMetrics.getWidth(label) + 4;
+        UIUtils.drawString(font, indicator, indicatorX, y, 0xAAAAAA);
         
         // Draw indicator dot if enabled
         if (value) {
             int dotSize = 3;
-            int dotX = indicatorX + font.getStringWidth(indicator) + 4;
+            int dotX = indicatorX + TextMetrics.getWidth(indicator) + 4;
             int dotY = y + (BASE_HEIGHT - dotSize) / 2;
             int dotColor = UIUtils.color(255,
                 (accentColor >> 16) & 255,
@@ -88,26 +170,11 @@ public class ExpandableMod extends Component {
             UIUtils.drawRoundedRect(dotX, dotY, dotSize, dotSize, dotSize / 2, dotColor);
         }
         
-        // Draw settings with animation
+        // Draw settings with animation (placed by arrangeChildren)
         if (expandProgress > 0.1F) {
-            float settingsAlpha = Math.min(1.0F, (expandProgress - 0.1F) / 0.9F);
-            int settingsY = y + BASE_HEIGHT + SETTING_SPACING;
-            
             for (Component setting : settings) {
-                setting.setPosition(x + 8, settingsY); // Indent settings
-                setting.setSize(width - 16, setting.getHeight());
                 setting.render(mouseX, mouseY, partialTicks);
-                settingsY += setting.getHeight() + SETTING_SPACING;
             }
-            
-            // Update height based on expanded state
-            int totalSettingsHeight = 0;
-            for (Component setting : settings) {
-                totalSettingsHeight += setting.getHeight() + SETTING_SPACING;
-            }
-            this.height = BASE_HEIGHT + (int)(totalSettingsHeight * expandProgress);
-        } else {
-            this.height = BASE_HEIGHT;
         }
     }
     
@@ -119,6 +186,7 @@ public class ExpandableMod extends Component {
         if (mouseButton == 0 && mouseX >= x && mouseX <= x + width && 
             mouseY >= y && mouseY <= y + BASE_HEIGHT) {
             value = !value;
+            markDirty();
             if (onToggle != null) {
                 onToggle.run();
             }
@@ -127,12 +195,15 @@ public class ExpandableMod extends Component {
         }
         
         // Right click on the label/indicator area = expand/collapse
-        FontRenderer font = Minecraft.getMinecraft().fontRendererObj;
-        int indicatorX = x + font.getStringWidth(label) + 4;
+        int indicatorX = x + TextMetrics.getWidth(label) + 4;
         
         if (mouseX >= x && mouseX <= indicatorX + 20 && mouseY >= y && mouseY <= y + BASE_HEIGHT) {
             if (mouseButton == 1) {
                 expanded = !expanded;
+                if (expanded) {
+                    ensureSettings();
+                }
+                markDirty();
                 expandAnimation.animateTo(expanded ? 1.0F : 0.0F);
                 Minecraft.getMinecraft().thePlayer.playSound("random.click", 0.2F, 1.0F);
                 return true;
@@ -162,6 +233,7 @@ public class ExpandableMod extends Component {
     
     public void addSetting(Component setting) {
         settings.add(setting);
+        adopt(setting);
     }
     
     public boolean getValue() {
@@ -169,7 +241,10 @@ public class ExpandableMod extends Component {
     }
     
     public void setValue(boolean value) {
-        this.value = value;
+        if (this.value != value) {
+            this.value = value;
+            markDirty();
+        }
     }
     
     public boolean isExpanded() {
@@ -178,6 +253,10 @@ public class ExpandableMod extends Component {
     
     public void setExpanded(boolean expanded) {
         this.expanded = expanded;
+        if (expanded) {
+            ensureSettings();
+        }
+        markDirty();
         expandAnimation.animateTo(expanded ? 1.0F : 0.0F);
     }
 }
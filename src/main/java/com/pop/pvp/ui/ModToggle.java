@@ -49,12 +49,12 @@ public class ModToggle extends Component {
         }
         
         // Draw label
-        font.drawString(label, x, y, textColor);
+        UIUtils.drawString(font, label, x, y, textColor);
         
         // Draw indicator dot if enabled (Wurst style)
         if (value) {
             int dotSize = 3;
-            int dotX = x + font.getStringWidth(label) + 4;
+            int dotX = x + TextMetrics.getWidth(label) + 4;
             int dotY = y + (height - dotSize) / 2;
             int dotColor = UIUtils.color(255,
                 (accentColor >> 16) & 255,
@@ -70,6 +70,7 @@ public class ModToggle extends Component {
         
         if (mouseButton == 0) {
             value = !value;
+            markDirty();
             if (onToggle != null) {
                 onToggle.run();
             }
@@ -80,12 +81,19 @@ public class ModToggle extends Component {
         return false;
     }
     
+    public String getLabel() {
+        return label;
+    }
+    
     public boolean getValue() {
         return value;
     }
     
     public void setValue(boolean value) {
-        this.value = value;
+        if (this.value != value) {
+            this.value = value;
+            markDirty();
+        }
     }
 }
 
@@ -27,13 +27,14 @@ public class Panel extends Component {
     private static final int SHADOW_SIZE = 4;
     private static final int PANEL_PADDING = 12;
     private static final int HEADER_HEIGHT = 24;
+    private static final int CHILD_SPACING = 8;
     
     public Panel(int x, int y, int width, int height, String title, int accentColor) {
         super(x, y, width, height);
         this.title = title;
         this.children = new ArrayList<Component>();
         this.accentColor = accentColor;
-        this.openAnimation = new Animation(1.0F, 12.0F);
+        this.openAnimation = createAnimation(1.0F, 12.0F);
     }
     
     @Override
@@ -41,23 +42,44 @@ public class Panel extends Component {
         if (!visible) return;
         
         super.update(mouseX, mouseY, partialTicks);
-        openAnimation.update(partialTicks);
         
         // Update drag position
-        if (dragging) {
-            this.x = mouseX - dragOffsetX;
-            this.y = mouseY - dragOffsetY;
+        if (dragging && (mouseX - dragOffsetX != x || mouseY - dragOffsetY != y)) {
+            translate(mouseX - dragOffsetX - x, mouseY - dragOffsetY - y);
+            markDirty();
+        }
+        
+        if (!layoutValid) {
+            arrangeChildren();
+            layoutValid = true;
         }
         
         // Update children
         float openProgress = openAnimation.getValue();
         if (openProgress > 0.01F) {
             for (Component child : children) {
-                child.update(mouseX, mouseY, partialTicks);
+                updateChild(child, mouseX, mouseY, partialTicks);
             }
         }
     }
     
+    @Override
+    protected void arrangeChildren() {
+        int childY = y + HEADER_HEIGHT + PANEL_PADDING;
+        for (Component child : children) {
+            child.arrange(x + PANEL_PADDING, childY, child.getWidth());
+            childY += child.getHeight() + CHILD_SPACING;
+        }
+    }
+    
+    @Override
+    protected void translate(int dx, int dy) {
+        super.translate(dx, dy);
+        for (Component child : children) {
+            child.translate(dx, dy);
+        }
+    }
+    
     @Override
     public void render(int mouseX, int mouseY, float partialTicks) {
         if (!visible) return;
@@ -91,7 +113,7 @@ public class Panel extends Component {
         // Draw title
         int titleX = x + PANEL_PADDING;
         int titleY = headerY + (HEADER_HEIGHT - 8) / 2;
-        font.drawString(
+        UIUtils.drawString(font,
             EnumChatFormatting.BOLD + title,
             titleX,
             titleY,
@@ -100,13 +122,8 @@ public class Panel extends Component {
         
         // Draw children with fade-in animation
         if (openProgress > 0.1F) {
-            float childAlpha = Math.min(1.0F, (openProgress - 0.1F) / 0.9F);
-            int childY = y + HEADER_HEIGHT + PANEL_PADDING;
-            
             for (Component child : children) {
-                child.setPosition(x + PANEL_PADDING, childY);
                 child.render(mouseX, mouseY, partialTicks);
-                childY += child.getHeight() + 8; // Spacing between children
             }
         }
     }
@@ -146,10 +163,14 @@ public class Panel extends Component {
     
     public void addChild(Component component) {
         children.add(component);
+        adopt(component);
     }
     
     public void removeChild(Component component) {
-        children.remove(component);
+        if (children.remove(component)) {
+            component.parent = null;
+            invalidateLayout();
+        }
     }
     
     public void setOpen(boolean open) {
@@ -0,0 +1,266 @@
+package com.pop.pvp.ui;
+
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraftforge.fml.common.FMLLog;
+import org.lwjgl.opengl.GL11;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Tracks the GL capabilities our rendering touches and restores what was there before.
+ * {@link #push()} records the current state once per pass, {@link #set} only
+ * issues the transitions that actually change something, and {@link #pop()} puts
+ * back the recorded state rather than assumed defaults.
+ *
+ * State is read from GlStateManager's own cache and changed through GlStateManager,
+ * so both always agree and no GL query stalls the driver. Should the cache not be
+ * readable, the real GL state is queried instead and every change is forced through
+ * GlStateManager, which keeps the two layers in step at the cost of extra calls.
+ *
+ * The blend function is not recorded. Passes change it only through {@link #blendNormal()},
+ * {@link #blendPremultiplied()} or {@link #blendFunc}, and the outermost {@link #pop()}
+ * then puts back vanilla's usual function (SRC_ALPHA, ONE_MINUS_SRC_ALPHA, ONE, ZERO).
+ *
+ * Why: Every primitive used to enable and disable blend, texture, depth and so on
+ * around itself, then reset them to whatever it guessed vanilla expected - which was
+ * wrong whenever we were called with, say, lighting already off.
+ *
+ * Client thread only.
+ */
+public final class RenderState {
+    public static final int BLEND = 1;
+    public static final int TEXTURE_2D = 1 << 1;
+    public static final int ALPHA = 1 << 2;
+    public static final int DEPTH = 1 << 3;
+    public static final int LIGHTING = 1 << 4;
+    public static final int CULL = 1 << 5;
+    
+    // GL capability for each bit, in bit order
+    private static final int[] CAPABILITIES = {
+        GL11.GL_BLEND, GL11.GL_TEXTURE_2D, GL11.GL_ALPHA_TEST, GL11.GL_DEPTH_TEST, GL11.GL_LIGHTING, GL11.GL_CULL_FACE
+    };
+    
+    private static final int[] stack = new int[8];
+    private static int depth;
+    private static int current; // Valid while depth > 0
+    private static boolean blendFuncChanged;
+    
+    // GlStateManager's BooleanState for each bit, and its cached on/off field
+    private static final Object[] cachedStates = new Object[CAPABILITIES.length];
+    private static Field cachedValue;
+    private static final boolean cacheReadable = findCachedStates();
+    
+    private RenderState() {
+    }
+    
+    /**
+     * Starts a pass. The outermost push reads the state; nested pushes reuse the tracked state.
+     */
+    public static void push() {
+        if (depth == stack.length) {
+            throw new IllegalStateException("RenderState.push nested too deep, missing pop?");
+        }
+        int state = depth > 0 ? current : read();
+        stack[depth++] = state;
+        current = state;
+    }
+    
+    /**
+     * Enables and disables the given capabilities (bitwise OR of the constants).
+     * Capabilities in neither mask keep their current value.
+     */
+    public static void set(int enable, int disable) {
+        if (depth == 0) {
+            throw new IllegalStateException("RenderState.set outside push/pop");
+        }
+        apply((current | enable) & ~disable);
+    }
+    
+    /**
+     * Ends a pass, restoring the state recorded by the matching push.
+     */
+    public static void pop() {
+        if (depth == 0) {
+            throw new IllegalStateException("RenderState.pop without push");
+        }
+        apply(stack[--depth]);
+        if (depth == 0 && blendFuncChanged) {
+            GlStateManager.tryBlendFuncSeparate(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA, GL11.GL_ONE, GL11.GL_ZERO);
+            blendFuncChanged = false;
+        }
+    }
+    
+    private static void apply(int target) {
+        int changed = current ^ target;
+        if (changed == 0) {
+            return;
+        }
+        current = target;
+        
+        if ((changed & BLEND) != 0) {
+            if (!cacheReadable) forceOpposite(BLEND, target);
+            if ((target & BLEND) != 0) GlStateManager.enableBlend(); else GlStateManager.disableBlend();
+        }
+        if ((changed & TEXTURE_2D) != 0) {
+            if (!cacheReadable) forceOpposite(TEXTURE_2D, target);
+            if ((target & TEXTURE_2D) != 0) GlStateManager.enableTexture2D(); else GlStateManager.disableTexture2D();
+        }
+        if ((changed & ALPHA) != 0) {
+            if (!cacheReadable) forceOpposite(ALPHA, target);
+            if ((target & ALPHA) != 0) GlStateManager.enableAlpha(); else GlStateManager.disableAlpha();
+        }
+        if ((changed & DEPTH) != 0) {
+            if (!cacheReadable) forceOpposite(DEPTH, target);
+            if ((target & DEPTH) != 0) GlStateManager.enableDepth(); else GlStateManager.disableDepth();
+        }
+        if ((changed & LIGHTING) != 0) {
+            if (!cacheReadable) forceOpposite(LIGHTING, target);
+            if ((target & LIGHTING) != 0) GlStateManager.enableLighting(); else GlStateManager.disableLighting();
+        }
+        if ((changed & CULL) != 0) {
+            if (!cacheReadable) forceOpposite(CULL, target);
+            if ((target & CULL) != 0) GlStateManager.enableCull(); else GlStateManager.disableCull();
+        }
+    }
+    
+    /**
+     * Sets GlStateManager's cache to the opposite of the target, so the following call
+     * to the target always reaches GL. Only used when the cache can't be read.
+     */
+    private static void forceOpposite(int bit, int target) {
+        boolean on = (target & bit) == 0;
+        switch (bit) {
+            case BLEND: if (on) GlStateManager.enableBlend(); else GlStateManager.disableBlend(); break;
+            case TEXTURE_2D: if (on) GlStateManager.enableTexture2D(); else GlStateManager.disableTexture2D(); break;
+            case ALPHA: if (on) GlStateManager.enableAlpha(); else GlStateManager.disableAlpha(); break;
+            case DEPTH: if (on) GlStateManager.enableDepth(); else GlStateManager.disableDepth(); break;
+            case LIGHTING: if (on) GlStateManager.enableLighting(); else GlStateManager.disableLighting(); break;
+            default: if (on) GlStateManager.enableCull(); else GlStateManager.disableCull(); break;
+        }
+    }
+    
+    /**
+     * Standard alpha blending for colour, with destination alpha accumulating as coverage.
+     * 
+     * Why: Drawn into a transparent framebuffer this leaves premultiplied colour, which
+     * {@link #blendPremultiplied()} then composites exactly like drawing straight to the screen.
+     */
+    public static void blendNormal() {
+        blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA, GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_ALPHA);
+    }
+    
+    /**
+     * Blending for textures whose colour is already multiplied by alpha.
+     */
+    public static void blendPremultiplied() {
+        blendFunc(GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_ALPHA, GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_ALPHA);
+    }
+    
+    /**
+     * Sets any blend function for the rest of the pass. Must be inside push/pop.
+     */
+    public static void blendFunc(int srcColor, int dstColor, int srcAlpha, int dstAlpha) {
+        if (depth == 0) {
+            throw new IllegalStateException("RenderState.blendFunc outside push/pop");
+        }
+        GlStateManager.tryBlendFuncSeparate(srcColor, dstColor, srcAlpha, dstAlpha);
+        blendFuncChanged = true;
+    }
+    
+    private static int read() {
+        int state = 0;
+        for (int i = 0; i < CAPABILITIES.length; i++) {
+            boolean on;
+            if (cacheReadable) {
+                try {
+                    on = cachedValue.getBoolean(cachedStates[i]);
+                } catch (IllegalAccessException e) {
+                    on = GL11.glIsEnabled(CAPABILITIES[i]); // Not reached; the field was made accessible
+                }
+            } else {
+                on = GL11.glIsEnabled(CAPABILITIES[i]);
+            }
+            if (on) {
+                state |= 1 << i;
+            }
+        }
+        return state;
+    }
+    
+    /**
+     * Finds GlStateManager's cached state for each tracked capability. Fields are matched by type
+     * and by the capability each BooleanState holds, not by name, so this works under any mappings.
+     * Textures are read for unit 0, the unit vanilla leaves active outside its own multitexture code.
+     */
+    private static boolean findCachedStates() {
+        try {
+            Class<?> booleanState = null;
+            for (Class<?> nested : GlStateManager.class.getDeclaredClasses()) {
+                if (nested.getSimpleName().equals("BooleanState")) {
+                    booleanState = nested;
+                }
+            }
+            if (booleanState == null) {
+                throw new NoSuchFieldException("GlStateManager.BooleanState");
+            }
+            Field capability = null;
+            for (Field field : booleanState.getDeclaredFields()) {
+                if (field.getType() == int.class) {
+                    capability = field;
+                } else if (field.getType() == boolean.class) {
+                    cachedValue = field;
+                }
+            }
+            if (capability == null || cachedValue == null) {
+                throw new NoSuchFieldException("GlStateManager.BooleanState fields");
+            }
+            capability.setAccessible(true);
+            cachedValue.setAccessible(true);
+            
+            for (Field field : GlStateManager.class.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                Object value = field.get(null);
+                if (value instanceof Object[]) {
+                    Object[] array = (Object[])value;
+                    value = array.length > 0 ? array[0] : null; // Texture unit 0
+                }
+                if (value == null) {
+                    continue;
+                }
+                if (booleanState.isInstance(value)) {
+                    register(value, capability.getInt(value));
+                } else if (value.getClass().getDeclaringClass() == GlStateManager.class) {
+                    // AlphaState, BlendState, DepthState, CullState, TextureState each wrap a BooleanState
+                    for (Field inner : value.getClass().getDeclaredFields()) {
+                        if (inner.getType() == booleanState) {
+                            inner.setAccessible(true);
+                            Object state = inner.get(value);
+                            register(state, capability.getInt(state));
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < cachedStates.length; i++) {
+                if (cachedStates[i] == null) {
+                    throw new NoSuchFieldException("GlStateManager state for capability " + CAPABILITIES[i]);
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            FMLLog.warning("[Popular] Can't read GlStateManager's cache, querying GL instead: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private static void register(Object state, int capability) {
+        for (int i = 0; i < CAPABILITIES.length; i++) {
+            if (CAPABILITIES[i] == capability && cachedStates[i] == null) {
+                cachedStates[i] = state;
+            }
+        }
+    }
+}
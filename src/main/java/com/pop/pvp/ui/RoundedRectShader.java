@@ -0,0 +1,164 @@
+package com.pop.pvp.ui;
+
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import net.minecraft.client.renderer.vertex.VertexFormatElement;
+import net.minecraftforge.fml.common.FMLLog;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GLContext;
+
+/**
+ * Signed-distance-field shader that draws a rounded rect, plain rect or soft shadow
+ * as a single quad with analytic anti-aliasing.
+ *
+ * Each vertex carries its offset from the rect centre, the rect size, and the corner
+ * radius and edge softness, so any number of shapes share one draw call.
+ *
+ * Why: The tessellated path computes a trig fan per corner on the CPU, and shadows
+ * overdraw the whole rect once per layer. Here every shape is four vertices and
+ * every pixel is written once.
+ *
+ * Needs OpenGL 2.0; {@link #isAvailable()} is false otherwise and UIUtils falls back
+ * to the tessellated path.
+ */
+public final class RoundedRectShader {
+    /** Position, colour, then centre offset, size, and (radius, softness) as texture coords 0-2. */
+    public static final VertexFormat FORMAT = new VertexFormat();
+    static {
+        FORMAT.addElement(DefaultVertexFormats.POSITION_3F);
+        FORMAT.addElement(DefaultVertexFormats.COLOR_4UB);
+        FORMAT.addElement(new VertexFormatElement(0, VertexFormatElement.EnumType.FLOAT, VertexFormatElement.EnumUsage.UV, 2));
+        FORMAT.addElement(new VertexFormatElement(1, VertexFormatElement.EnumType.FLOAT, VertexFormatElement.EnumUsage.UV, 2));
+        FORMAT.addElement(new VertexFormatElement(2, VertexFormatElement.EnumType.FLOAT, VertexFormatElement.EnumUsage.UV, 2));
+    }
+    
+    private static final String VERTEX_SOURCE =
+        "#version 120\n" +
+        "varying vec2 offset;\n" +
+        "varying vec2 halfSize;\n" +
+        "varying vec2 shape;\n" +
+        "void main() {\n" +
+        "    gl_Position = gl_ModelViewProjectionMatrix * gl_Vertex;\n" +
+        "    gl_FrontColor = gl_Color;\n" +
+        "    offset = gl_MultiTexCoord0.xy;\n" +
+        "    halfSize = gl_MultiTexCoord1.xy * 0.5;\n" +
+        "    shape = gl_MultiTexCoord2.xy;\n" +
+        "}\n";
+    
+    private static final String FRAGMENT_SOURCE =
+        "#version 120\n" +
+        "varying vec2 offset;\n" +
+        "varying vec2 halfSize;\n" +
+        "varying vec2 shape;\n" +
+        "void main() {\n" +
+        "    float radius = shape.x;\n" +
+        "    float softness = shape.y;\n" +
+        // Distance to the rounded box edge, negative inside
+        "    vec2 q = abs(offset) - halfSize + radius;\n" +
+        "    float d = length(max(q, 0.0)) + min(max(q.x, q.y), 0.0) - radius;\n" +
+        "    float alpha;\n" +
+        "    if (softness > 0.0) {\n" +
+        "        alpha = 1.0 - smoothstep(-softness, softness, d);\n" +
+        "    } else {\n" +
+        // One screen pixel of coverage falloff, whatever the GUI scale
+        "        alpha = clamp(0.5 - d / max(fwidth(d), 0.0001), 0.0, 1.0);\n" +
+        "    }\n" +
+        "    gl_FragColor = vec4(gl_Color.rgb, gl_Color.a * alpha);\n" +
+        "}\n";
+    
+    private static boolean initialized;
+    private static int program;
+    
+    private RoundedRectShader() {
+    }
+    
+    /**
+     * True if the shader compiled. Compiles on first call; needs the GL context.
+     */
+    public static boolean isAvailable() {
+        if (!initialized) {
+            initialized = true;
+            program = createProgram();
+        }
+        return program != 0;
+    }
+    
+    public static void bind() {
+        GL20.glUseProgram(program);
+    }
+    
+    public static void unbind() {
+        GL20.glUseProgram(0);
+    }
+    
+    /**
+     * Appends one shape as a quad (GL_QUADS, {@link #FORMAT}).
+     *
+     * @param radius   Corner radius, 0 for square corners
+     * @param softness Half-width of the blurred edge, 0 for a sharp anti-aliased edge
+     */
+    public static void addRect(WorldRenderer renderer, float x, float y, float width, float height,
+                               float radius, float softness, int color) {
+        radius = Math.min(radius, Math.min(width, height) / 2.0F);
+        float centerX = x + width / 2.0F;
+        float centerY = y + height / 2.0F;
+        float pad = softness + 1.0F; // Room for the soft or anti-aliased edge
+        float left = x - pad;
+        float top = y - pad;
+        float right = x + width + pad;
+        float bottom = y + height + pad;
+        
+        addVertex(renderer, left, bottom, centerX, centerY, width, height, radius, softness, color);
+        addVertex(renderer, right, bottom, centerX, centerY, width, height, radius, softness, color);
+        addVertex(renderer, right, top, centerX, centerY, width, height, radius, softness, color);
+        addVertex(renderer, left, top, centerX, centerY, width, height, radius, softness, color);
+    }
+    
+    private static void addVertex(WorldRenderer renderer, float x, float y, float centerX, float centerY,
+                                  float width, float height, float radius, float softness, int color) {
+        renderer.pos(x, y, 0.0D)
+            .color(color >> 16 & 255, color >> 8 & 255, color & 255, color >>> 24)
+            .tex(x - centerX, y - centerY)
+            .tex(width, height)
+            .tex(radius, softness)
+            .endVertex();
+    }
+    
+    private static int createProgram() {
+        if (!GLContext.getCapabilities().OpenGL20) {
+            return 0;
+        }
+        int vertex = compile(GL20.GL_VERTEX_SHADER, VERTEX_SOURCE);
+        int fragment = compile(GL20.GL_FRAGMENT_SHADER, FRAGMENT_SOURCE);
+        if (vertex == 0 || fragment == 0) {
+            return 0;
+        }
+        
+        int id = GL20.glCreateProgram();
+        GL20.glAttachShader(id, vertex);
+        GL20.glAttachShader(id, fragment);
+        GL20.glLinkProgram(id);
+        GL20.glDeleteShader(vertex); // Freed with the program
+        GL20.glDeleteShader(fragment);
+        if (GL20.glGetProgrami(id, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
+            FMLLog.warning("[Popular] Rounded rect shader failed to link, using fallback: " + GL20.glGetProgramInfoLog(id, 1024));
+            GL20.glDeleteProgram(id);
+            return 0;
+        }
+        return id;
+    }
+    
+    private static int compile(int type, String source) {
+        int id = GL20.glCreateShader(type);
+        GL20.glShaderSource(id, source);
+        GL20.glCompileShader(id);
+        if (GL20.glGetShaderi(id, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
+            FMLLog.warning("[Popular] Rounded rect shader failed to compile, using fallback: " + GL20.glGetShaderInfoLog(id, 1024));
+            GL20.glDeleteShader(id);
+            return 0;
+        }
+        return id;
+    }
+}
@@ -30,13 +30,7 @@ public class Setting extends Component {
         this.value = initialValue;
         this.onToggle = onToggle;
         this.accentColor = accentColor;
-        this.toggleAnimation = new Animation(initialValue ? 1.0F : 0.0F, 10.0F);
-    }
-    
-    @Override
-    public void update(int mouseX, int mouseY, float partialTicks) {
-        super.update(mouseX, mouseY, partialTicks);
-        toggleAnimation.update(partialTicks);
+        this.toggleAnimation = createAnimation(initialValue ? 1.0F : 0.0F, 10.0F);
     }
     
     @Override
@@ -47,7 +41,7 @@ public class Setting extends Component {
         float hoverProgress = getHoverProgress();
         
         // Draw label (clean white text - Wurst style)
-        font.drawString(
+        UIUtils.drawString(font,
             label,
             x,
             y + (height - 8) / 2,
@@ -94,6 +88,7 @@ public class Setting extends Component {
         
         if (mouseButton == 0) {
             value = !value;
+            markDirty();
             toggleAnimation.animateTo(value ? 1.0F : 0.0F);
             if (onToggle != null) {
                 onToggle.run();
@@ -111,6 +106,7 @@ public class Setting extends Component {
     
     public void setValue(boolean value) {
         this.value = value;
+        markDirty();
         toggleAnimation.animateTo(value ? 1.0F : 0.0F);
     }
 }
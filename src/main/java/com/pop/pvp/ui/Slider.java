@@ -15,9 +15,14 @@ public class Slider extends Component {
     private Runnable onChange;
     private int accentColor;
     private boolean dragging = false;
+    private boolean handleHovered = false;
+    private int trackX, trackY, trackWidth; // From layout
+    private final char[] valueChars = new char[24];
+    private String valueText; // Formatted value, replaced only when the shown digits change
     
     private static final int HEIGHT = 16; // Increased height for better visibility
-    private static final int SLIDER_WIDTH = 100;
+    private static final int SLIDER_WIDTH = 80; // Same for every slider so they line up
+    private static final int LABEL_COLUMN = 60; // All tracks start this far from the left edge
     private static final int SLIDER_HEIGHT = 6; // Thicker track for visibility
     private static final int HANDLE_SIZE = 10; // Larger handle
     
@@ -36,18 +41,82 @@ public class Slider extends Component {
         super.update(mouseX, mouseY, partialTicks);
         
         if (dragging) {
-            FontRenderer font = Minecraft.getMinecraft().fontRendererObj;
-            int actualSliderWidth = 80; // Fixed width for alignment
-            int sliderStartX = x + 60; // Fixed position - matches render
-            int sliderX = sliderStartX;
-            
-            double normalizedX = (double)(mouseX - sliderX) / actualSliderWidth;
-            normalizedX = Math.max(0.0, Math.min(1.0, normalizedX));
-            value = minValue + (maxValue - minValue) * normalizedX;
-            if (onChange != null) {
-                onChange.run();
+            double newValue = valueAt(mouseX);
+            if (newValue != value) {
+                value = newValue;
+                markDirty();
+                if (onChange != null) {
+                    onChange.run();
+                }
+            }
+        }
+        
+        // Track the handle hover here so a change marks the slider dirty before it is drawn
+        int handleX = getHandleX();
+        int handleY = y + (height - HANDLE_SIZE) / 2;
+        boolean overHandle = mouseX >= handleX && mouseX <= handleX + HANDLE_SIZE &&
+                             mouseY >= handleY && mouseY <= handleY + HANDLE_SIZE;
+        if (overHandle != handleHovered) {
+            handleHovered = overHandle;
+            markDirty();
+        }
+    }
+    
+    @Override
+    protected void arrangeChildren() {
+        int valueTextWidth = TextMetrics.measure(valueChars, TextMetrics.formatFixed(maxValue, 1, valueChars)); // Widest value
+        trackX = x + LABEL_COLUMN;
+        trackY = y + (height - SLIDER_HEIGHT) / 2;
+        // A narrow window shortens the track rather than pushing the value text out
+        trackWidth = Math.max(HANDLE_SIZE, Math.min(SLIDER_WIDTH, width - LABEL_COLUMN - 4 - valueTextWidth));
+    }
+    
+    @Override
+    protected void translate(int dx, int dy) {
+        super.translate(dx, dy);
+        trackX += dx;
+        trackY += dy;
+    }
+    
+    /**
+     * The value with one decimal. Formats into a scratch buffer and only allocates
+     * a new string when the digits differ from what is shown.
+     */
+    private String getValueText() {
+        int length = TextMetrics.formatFixed(value, 1, valueChars);
+        if (valueText == null || valueText.length() != length || !sameChars(valueText, valueChars, length)) {
+            valueText = new String(valueChars, 0, length);
+        }
+        return valueText;
+    }
+    
+    private static boolean sameChars(String text, char[] chars, int length) {
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) != chars[i]) {
+                return false;
             }
         }
+        return true;
+    }
+    
+    private double getNormalizedValue() {
+        return Math.max(0.0, Math.min(1.0, (value - minValue) / (maxValue - minValue)));
+    }
+    
+    private int getHandleX() {
+        return trackX + (int)(trackWidth * getNormalizedValue()) - HANDLE_SIZE / 2;
+    }
+    
+    private double valueAt(int mouseX) {
+        double normalizedX = (double)(mouseX - trackX) / trackWidth;
+        normalizedX = Math.max(0.0, Math.min(1.0, normalizedX));
+        return minValue + (maxValue - minValue) * normalizedX;
+    }
+    
+    @Override
+    public boolean needsUpdate() {
+        // The value follows the mouse while dragging, even outside the slider
+        return super.needsUpdate() || dragging;
     }
     
     @Override
@@ -56,35 +125,17 @@ public class Slider extends Component {
         
         FontRenderer font = Minecraft.getMinecraft().fontRendererObj;
         
-        // Calculate slider position - align all sliders to start at the same X position
-        int labelWidth = font.getStringWidth(label);
-        int valueTextWidth = font.getStringWidth(String.format("%.1f", maxValue)); // Use max value for width calculation
-        
-        // Fixed slider width for alignment - use consistent width across all sliders
-        int actualSliderWidth = 80; // Fixed width for alignment
-        
-        // Fixed starting X position for all sliders (after longest label + spacing)
-        // Use a consistent offset from the left to align all sliders vertically
-        int sliderStartX = x + 60; // Fixed position - all sliders start here
-        
         // Draw label
-        font.drawString(label, x, y, 0xFFFFFF);
-        
-        // Calculate slider X position (right-aligned, but track starts at fixed position)
-        int sliderX = sliderStartX;
-        int sliderY = y + (height - SLIDER_HEIGHT) / 2;
+        UIUtils.drawString(font, label, x, y, 0xFFFFFF);
         
-        // Calculate normalized value first
-        double normalizedValue = (value - minValue) / (maxValue - minValue);
-        normalizedValue = Math.max(0.0, Math.min(1.0, normalizedValue)); // Clamp
-        int filledWidth = (int)(actualSliderWidth * normalizedValue);
+        int filledWidth = (int)(trackWidth * getNormalizedValue());
         
         // Draw slider track background (VERY light grey, fully opaque and visible)
         // Use a much brighter color to ensure visibility - make it almost white
         int trackColor = UIUtils.color(255, 200, 200, 200); // Very light grey, almost white, fully opaque
         
         // Use simple rectangle first to ensure it's visible (no rounded corners for track)
-        UIUtils.drawRect(sliderX, sliderY, sliderX + actualSliderWidth, sliderY + SLIDER_HEIGHT, trackColor);
+        UIUtils.drawRect(trackX, trackY, trackX + trackWidth, trackY + SLIDER_HEIGHT, trackColor);
         
         // Draw filled portion (accent color - very visible) ON TOP of track
         if (filledWidth > 1) { // Make sure it's at least 2px wide
@@ -93,14 +144,12 @@ public class Slider extends Component {
                 (accentColor >> 8) & 255,
                 accentColor & 255);
             // Draw filled portion using simple rectangle for visibility
-            UIUtils.drawRect(sliderX, sliderY, sliderX + filledWidth, sliderY + SLIDER_HEIGHT, filledColor);
+            UIUtils.drawRect(trackX, trackY, trackX + filledWidth, trackY + SLIDER_HEIGHT, filledColor);
         }
         
         // Draw handle (bright white circle with border for visibility)
-        int handleX = sliderX + (int)(actualSliderWidth * normalizedValue) - HANDLE_SIZE / 2;
+        int handleX = getHandleX();
         int handleY = y + (height - HANDLE_SIZE) / 2;
-        boolean handleHovered = mouseX >= handleX && mouseX <= handleX + HANDLE_SIZE &&
-                                mouseY >= handleY && mouseY <= handleY + HANDLE_SIZE;
         
         // Draw handle shadow/outline first
         int handleOutlineColor = UIUtils.color(255, 100, 100, 100);
@@ -113,28 +162,21 @@ public class Slider extends Component {
         UIUtils.drawRoundedRect(handleX, handleY, HANDLE_SIZE, HANDLE_SIZE, HANDLE_SIZE / 2, handleColor);
         
         // Draw value text (right-aligned, after slider)
-        String valueTextStr = String.format("%.1f", value);
-        int textX = sliderX + actualSliderWidth + 4;
-        font.drawString(valueTextStr, textX, y, 0xAAAAAA);
+        int textX = trackX + trackWidth + 4;
+        UIUtils.drawString(font, getValueText(), textX, y, 0xAAAAAA);
     }
     
     @Override
     public boolean mouseClicked(int mouseX, int mouseY, int mouseButton) {
         if (!visible) return false;
         
-        FontRenderer font = Minecraft.getMinecraft().fontRendererObj;
-        int actualSliderWidth = 80; // Fixed width for alignment
-        int sliderStartX = x + 60; // Fixed position - matches render
-        int sliderX = sliderStartX;
-        
-        if (mouseX >= sliderX && mouseX <= sliderX + actualSliderWidth &&
+        if (mouseX >= trackX && mouseX <= trackX + trackWidth &&
             mouseY >= y && mouseY <= y + height) {
             if (mouseButton == 0) {
                 dragging = true;
+                markDirty();
                 // Update value immediately
-                double normalizedX = (double)(mouseX - sliderX) / actualSliderWidth;
-                normalizedX = Math.max(0.0, Math.min(1.0, normalizedX));
-                value = minValue + (maxValue - minValue) * normalizedX;
+                value = valueAt(mouseX);
                 if (onChange != null) {
                     onChange.run();
                 }
@@ -148,7 +190,10 @@ public class Slider extends Component {
     
     @Override
     public void mouseReleased(int mouseX, int mouseY, int state) {
-        dragging = false;
+        if (dragging) {
+            dragging = false;
+            markDirty();
+        }
     }
     
     public double getValue() {
@@ -157,6 +202,7 @@ public class Slider extends Component {
     
     public void setValue(double value) {
         this.value = Math.max(minValue, Math.min(maxValue, value));
+        markDirty();
     }
 }
 
@@ -0,0 +1,163 @@
+package com.pop.pvp.ui;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.resources.IReloadableResourceManager;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.client.resources.IResourceManagerReloadListener;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Cached text widths for the default font, plus an allocation-free number formatter.
+ *
+ * Widths of labels and other long-lived strings are cached by string identity, so a
+ * lookup is a pointer hash with no character scan. Anything else is summed from a
+ * per-character width table instead of going through FontRenderer. Both are dropped on
+ * resource reload (resource pack, language or Unicode font change), which also bumps
+ * {@link #getGeneration()} for callers that cache widths themselves.
+ *
+ * Client thread only.
+ */
+public final class TextMetrics {
+    private static final int TABLE_SIZE = 256; // Latin-1; anything else asks the font
+    private static final int MAX_CACHED = 512; // Strings created per frame must not pile up
+    private static final char FORMATTING_CODE = '\u00a7';
+    
+    private static final Map<String, Integer> widths = new IdentityHashMap<String, Integer>();
+    private static final int[] charWidths = new int[TABLE_SIZE];
+    private static FontRenderer tableFont;
+    private static int generation;
+    
+    private TextMetrics() {
+    }
+    
+    /**
+     * Clears everything when resources reload. Call once at startup; registering after
+     * vanilla's listeners means the font has already reloaded when this runs.
+     */
+    public static void registerReloadListener(Minecraft mc) {
+        ((IReloadableResourceManager)mc.getResourceManager()).registerReloadListener(new IResourceManagerReloadListener() {
+            @Override
+            public void onResourceManagerReload(IResourceManager resourceManager) {
+                invalidate();
+            }
+        });
+    }
+    
+    public static void invalidate() {
+        widths.clear();
+        tableFont = null;
+        generation++;
+    }
+    
+    /**
+     * Increases whenever cached widths become wrong.
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+    
+    /**
+     * Width of a string that lives across frames (labels, titles, constants).
+     * Cached by identity, so equal but distinct strings are measured separately.
+     */
+    public static int getWidth(String text) {
+        Integer cached = widths.get(text);
+        if (cached != null) {
+            return cached;
+        }
+        int width = measure(text);
+        if (widths.size() >= MAX_CACHED) {
+            widths.clear();
+        }
+        widths.put(text, width);
+        return width;
+    }
+    
+    /**
+     * Width of a string without caching it, from the character table where possible.
+     */
+    public static int measure(String text) {
+        FontRenderer font = getFont();
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= TABLE_SIZE || c == FORMATTING_CODE) {
+                return font.getStringWidth(text); // Formatting codes change widths (bold)
+            }
+            width += charWidths[c];
+        }
+        return width;
+    }
+    
+    /**
+     * Width of the first {@code length} characters, which must be plain ASCII as written by {@link #formatFixed}.
+     */
+    public static int measure(char[] chars, int length) {
+        getFont();
+        int width = 0;
+        for (int i = 0; i < length; i++) {
+            width += charWidths[chars[i]];
+        }
+        return width;
+    }
+    
+    private static FontRenderer getFont() {
+        FontRenderer font = Minecraft.getMinecraft().fontRendererObj;
+        if (tableFont != font) {
+            for (int c = 0; c < TABLE_SIZE; c++) {
+                charWidths[c] = c == FORMATTING_CODE ? 0 : font.getCharWidth((char)c);
+            }
+            tableFont = font;
+        }
+        return font;
+    }
+    
+    /**
+     * Writes {@code value} with a fixed number of decimals into {@code out}, returning the length.
+     * Rounds half away from zero and always uses '.', unlike String.format under some locales.
+     *
+     * @param out Buffer of at least 21 + decimals chars
+     */
+    public static int formatFixed(double value, int decimals, char[] out) {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) {
+            scale *= 10;
+        }
+        boolean negative = value < 0.0;
+        long scaled = Math.round(Math.abs(value) * scale);
+        
+        // Digits are written backwards from the end, then moved to the front
+        int end = out.length;
+        int pos = end;
+        for (int i = 0; i < decimals; i++) {
+            out[--pos] = (char)('0' + scaled % 10);
+            scaled /= 10;
+        }
+        if (decimals > 0) {
+            out[--pos] = '.';
+        }
+        do {
+            out[--pos] = (char)('0' + scaled % 10);
+            scaled /= 10;
+        } while (scaled > 0);
+        if (negative && !isZero(out, pos, end)) {
+            out[--pos] = '-';
+        }
+        
+        int length = end - pos;
+        System.arraycopy(out, pos, out, 0, length);
+        return length;
+    }
+    
+    private static boolean isZero(char[] digits, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (digits[i] != '0' && digits[i] != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
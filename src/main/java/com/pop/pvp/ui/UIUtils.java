@@ -1,6 +1,6 @@
 package com.pop.pvp.ui;
 
-import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.gui.FontRenderer;
 import net.minecraft.client.renderer.Tessellator;
 import net.minecraft.client.renderer.WorldRenderer;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
@@ -9,8 +9,25 @@ import org.lwjgl.opengl.GL11;
 /**
  * Utility class for drawing UI elements with modern styling.
  * Provides rounded rectangles, shadows, and smooth rendering.
+ * 
+ * Rects and text go into the {@link DrawQueue} while it is active and are drawn
+ * immediately otherwise. Draw text through {@link #drawString} so it is queued too.
+ * 
+ * With OpenGL 2.0 every rect, rounded rect and shadow is a single quad drawn by
+ * {@link RoundedRectShader}; otherwise they are tessellated.
  */
 public class UIUtils {
+    // Unit circle in 11.25 degree steps (8 segments per quarter), for the tessellated corners
+    private static final int ARC_STEPS = 32;
+    private static final double[] ARC_COS = new double[ARC_STEPS + 1];
+    private static final double[] ARC_SIN = new double[ARC_STEPS + 1];
+    static {
+        for (int i = 0; i <= ARC_STEPS; i++) {
+            double angle = Math.PI * 2 * i / ARC_STEPS;
+            ARC_COS[i] = Math.cos(angle);
+            ARC_SIN[i] = Math.sin(angle);
+        }
+    }
     
     /**
      * Draws a rounded rectangle with customizable corner radius.
@@ -27,6 +44,12 @@ public class UIUtils {
      * @param color ARGB color (0xAARRGGBB)
      */
     public static void drawRoundedRect(int x, int y, int width, int height, int radius, int color) {
+        if (RoundedRectShader.isAvailable()) {
+            RoundedRectShader.addRect(beginShapes(), x, y, width, height, Math.max(radius, 0), 0, color);
+            endShapes();
+            return;
+        }
+        
         if (radius <= 0) {
             // Fallback to regular rectangle if no radius
             drawRect(x, y, x + width, y + height, color);
@@ -36,19 +59,7 @@ public class UIUtils {
         // Clamp radius to half the smallest dimension
         radius = Math.min(radius, Math.min(width, height) / 2);
         
-        float alpha = (float)(color >> 24 & 255) / 255.0F;
-        float red = (float)(color >> 16 & 255) / 255.0F;
-        float green = (float)(color >> 8 & 255) / 255.0F;
-        float blue = (float)(color & 255) / 255.0F;
-        
-        GlStateManager.enableBlend();
-        GlStateManager.disableTexture2D();
-        GlStateManager.tryBlendFuncSeparate(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA, 1, 0);
-        GlStateManager.color(red, green, blue, alpha);
-        
-        Tessellator tessellator = Tessellator.getInstance();
-        WorldRenderer worldrenderer = tessellator.getWorldRenderer();
-        worldrenderer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION);
+        WorldRenderer worldrenderer = beginQuads();
         
         int x1 = x;
         int y1 = y;
@@ -57,89 +68,143 @@ public class UIUtils {
         
         // Draw main rectangle (center area without corners)
         if (width > radius * 2 && height > radius * 2) {
-            addVertex(worldrenderer, x1 + radius, y1, 0);
-            addVertex(worldrenderer, x2 - radius, y1, 0);
-            addVertex(worldrenderer, x2 - radius, y2, 0);
-            addVertex(worldrenderer, x1 + radius, y2, 0);
+            addVertex(worldrenderer, color, x1 + radius, y1, 0);
+            addVertex(worldrenderer, color, x2 - radius, y1, 0);
+            addVertex(worldrenderer, color, x2 - radius, y2, 0);
+            addVertex(worldrenderer, color, x1 + radius, y2, 0);
         }
         
         // Draw side rectangles
         if (height > radius * 2) {
             // Left side
-            addVertex(worldrenderer, x1, y1 + radius, 0);
-            addVertex(worldrenderer, x1 + radius, y1 + radius, 0);
-            addVertex(worldrenderer, x1 + radius, y2 - radius, 0);
-            addVertex(worldrenderer, x1, y2 - radius, 0);
+            addVertex(worldrenderer, color, x1, y1 + radius, 0);
+            addVertex(worldrenderer, color, x1 + radius, y1 + radius, 0);
+            addVertex(worldrenderer, color, x1 + radius, y2 - radius, 0);
+            addVertex(worldrenderer, color, x1, y2 - radius, 0);
             
             // Right side
-            addVertex(worldrenderer, x2 - radius, y1 + radius, 0);
-            addVertex(worldrenderer, x2, y1 + radius, 0);
-            addVertex(worldrenderer, x2, y2 - radius, 0);
-            addVertex(worldrenderer, x2 - radius, y2 - radius, 0);
+            addVertex(worldrenderer, color, x2 - radius, y1 + radius, 0);
+            addVertex(worldrenderer, color, x2, y1 + radius, 0);
+            addVertex(worldrenderer, color, x2, y2 - radius, 0);
+            addVertex(worldrenderer, color, x2 - radius, y2 - radius, 0);
         }
         
-        // Draw corner arcs (simplified approach)
-        int segments = 8;
-        drawCornerArc(worldrenderer, x1 + radius, y1 + radius, radius, 180, 270, segments); // Top-left
-        drawCornerArc(worldrenderer, x2 - radius, y1 + radius, radius, 270, 360, segments); // Top-right
-        drawCornerArc(worldrenderer, x1 + radius, y2 - radius, radius, 90, 180, segments);  // Bottom-left
-        drawCornerArc(worldrenderer, x2 - radius, y2 - radius, radius, 0, 90, segments);    // Bottom-right
-        
-        tessellator.draw();
+        // Draw corner arcs (quarter circles from the unit circle table)
+        int quarter = ARC_STEPS / 4;
+        drawCornerArc(worldrenderer, color, x1 + radius, y1 + radius, radius, quarter * 2); // Top-left
+        drawCornerArc(worldrenderer, color, x2 - radius, y1 + radius, radius, quarter * 3); // Top-right
+        drawCornerArc(worldrenderer, color, x1 + radius, y2 - radius, radius, quarter);     // Bottom-left
+        drawCornerArc(worldrenderer, color, x2 - radius, y2 - radius, radius, 0);           // Bottom-right
         
-        GlStateManager.enableTexture2D();
-        GlStateManager.disableBlend();
+        endQuads();
     }
     
     /**
      * Draws a corner arc (quarter circle) for rounded rectangles.
+     * 
+     * @param startStep Index into the unit circle table where the quarter starts
      */
-    private static void drawCornerArc(WorldRenderer renderer, int centerX, int centerY, int radius, int startAngle, int endAngle, int segments) {
-        for (int i = 0; i < segments; i++) {
-            double angle1 = Math.toRadians(startAngle + (endAngle - startAngle) * i / segments);
-            double angle2 = Math.toRadians(startAngle + (endAngle - startAngle) * (i + 1) / segments);
+    private static void drawCornerArc(WorldRenderer renderer, int color, int centerX, int centerY, int radius, int startStep) {
+        for (int i = startStep; i < startStep + ARC_STEPS / 4; i++) {
+            double x1 = centerX + ARC_COS[i] * radius;
+            double y1 = centerY + ARC_SIN[i] * radius;
+            double x2 = centerX + ARC_COS[i + 1] * radius;
+            double y2 = centerY + ARC_SIN[i + 1] * radius;
             
-            double x1 = centerX + Math.cos(angle1) * radius;
-            double y1 = centerY + Math.sin(angle1) * radius;
-            double x2 = centerX + Math.cos(angle2) * radius;
-            double y2 = centerY + Math.sin(angle2) * radius;
-            
-            addVertex(renderer, centerX, centerY, 0);
-            addVertex(renderer, x1, y1, 0);
-            addVertex(renderer, x2, y2, 0);
-            addVertex(renderer, centerX, centerY, 0);
+            addVertex(renderer, color, centerX, centerY, 0);
+            addVertex(renderer, color, x1, y1, 0);
+            addVertex(renderer, color, x2, y2, 0);
+            addVertex(renderer, color, centerX, centerY, 0);
         }
     }
     
-    private static void addVertex(WorldRenderer renderer, double x, double y, double z) {
-        renderer.pos(x, y, z).endVertex();
+    private static void addVertex(WorldRenderer renderer, int color, double x, double y, double z) {
+        renderer.pos(x, y, z).color(color >> 16 & 255, color >> 8 & 255, color & 255, color >>> 24).endVertex();
+    }
+    
+    /**
+     * Returns a GL_QUADS POSITION_COLOR buffer: the draw queue's if active, else the Tessellator's.
+     */
+    private static WorldRenderer beginQuads() {
+        if (DrawQueue.isActive()) {
+            return DrawQueue.quads();
+        }
+        WorldRenderer worldrenderer = Tessellator.getInstance().getWorldRenderer();
+        worldrenderer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_COLOR);
+        return worldrenderer;
+    }
+    
+    /**
+     * Draws the quads from {@link #beginQuads()} unless they are queued.
+     */
+    private static void endQuads() {
+        if (DrawQueue.isActive()) {
+            return;
+        }
+        RenderState.push();
+        RenderState.set(RenderState.BLEND, RenderState.TEXTURE_2D);
+        RenderState.blendNormal();
+        Tessellator.getInstance().draw();
+        RenderState.pop();
+    }
+    
+    /**
+     * Returns a GL_QUADS {@link RoundedRectShader#FORMAT} buffer: the draw queue's if active, else the Tessellator's.
+     */
+    private static WorldRenderer beginShapes() {
+        if (DrawQueue.isActive()) {
+            return DrawQueue.shapes();
+        }
+        WorldRenderer worldrenderer = Tessellator.getInstance().getWorldRenderer();
+        worldrenderer.begin(GL11.GL_QUADS, RoundedRectShader.FORMAT);
+        return worldrenderer;
+    }
+    
+    /**
+     * Draws the shapes from {@link #beginShapes()} unless they are queued.
+     */
+    private static void endShapes() {
+        if (DrawQueue.isActive()) {
+            return;
+        }
+        RenderState.push();
+        RenderState.set(RenderState.BLEND, RenderState.TEXTURE_2D);
+        RenderState.blendNormal();
+        RoundedRectShader.bind();
+        Tessellator.getInstance().draw();
+        RoundedRectShader.unbind();
+        RenderState.pop();
+    }
+    
+    /**
+     * Draws text, or queues it for the text pass of the current layer.
+     */
+    public static void drawString(FontRenderer font, String text, int x, int y, int color) {
+        if (DrawQueue.isActive()) {
+            DrawQueue.text(font, text, x, y, color);
+        } else {
+            font.drawString(text, x, y, color);
+        }
     }
     
     /**
      * Draws a simple rectangle (fallback for non-rounded).
      */
     public static void drawRect(int left, int top, int right, int bottom, int color) {
-        float alpha = (float)(color >> 24 & 255) / 255.0F;
-        float red = (float)(color >> 16 & 255) / 255.0F;
-        float green = (float)(color >> 8 & 255) / 255.0F;
-        float blue = (float)(color & 255) / 255.0F;
-        
-        GlStateManager.enableBlend();
-        GlStateManager.disableTexture2D();
-        GlStateManager.tryBlendFuncSeparate(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA, 1, 0);
-        GlStateManager.color(red, green, blue, alpha);
-        
-        Tessellator tessellator = Tessellator.getInstance();
-        WorldRenderer worldrenderer = tessellator.getWorldRenderer();
-        worldrenderer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION);
-        worldrenderer.pos(left, bottom, 0.0D).endVertex();
-        worldrenderer.pos(right, bottom, 0.0D).endVertex();
-        worldrenderer.pos(right, top, 0.0D).endVertex();
-        worldrenderer.pos(left, top, 0.0D).endVertex();
-        tessellator.draw();
+        if (RoundedRectShader.isAvailable()) {
+            int x = Math.min(left, right);
+            int y = Math.min(top, bottom);
+            RoundedRectShader.addRect(beginShapes(), x, y, Math.abs(right - left), Math.abs(bottom - top), 0, 0, color);
+            endShapes();
+            return;
+        }
         
-        GlStateManager.enableTexture2D();
-        GlStateManager.disableBlend();
+        WorldRenderer worldrenderer = beginQuads();
+        addVertex(worldrenderer, color, left, bottom, 0.0D);
+        addVertex(worldrenderer, color, right, bottom, 0.0D);
+        addVertex(worldrenderer, color, right, top, 0.0D);
+        addVertex(worldrenderer, color, left, top, 0.0D);
+        endQuads();
     }
     
     /**
@@ -155,6 +220,20 @@ public class UIUtils {
      * @param opacity Shadow opacity (0.0-1.0)
      */
     public static void drawShadow(int x, int y, int width, int height, int radius, int shadowSize, float opacity) {
+        if (RoundedRectShader.isAvailable() && shadowSize > 0) {
+            // One soft-edged shape, as dark in the middle as the stacked layers below
+            float transparency = 1.0F;
+            for (int i = 0; i < shadowSize; i++) {
+                transparency *= 1.0F - opacity * (1.0F - (float)i / shadowSize) * 0.3F;
+            }
+            int shadowColor = (int)((1.0F - transparency) * 255) << 24; // Black with alpha
+            float half = shadowSize / 2.0F;
+            RoundedRectShader.addRect(beginShapes(), x - half, y - half, width + shadowSize, height + shadowSize,
+                radius + half, half, shadowColor);
+            endShapes();
+            return;
+        }
+        
         // Draw multiple layers with decreasing opacity for smooth shadow
         for (int i = 0; i < shadowSize; i++) {
             float layerOpacity = opacity * (1.0F - (float)i / shadowSize) * 0.3F;
@@ -176,7 +255,8 @@ public class UIUtils {
      * Provides natural deceleration for UI transitions.
      */
     public static float easeOutCubic(float t) {
-        return 1.0F - (float)Math.pow(1.0 - t, 3);
+        float inverse = 1.0F - t;
+        return 1.0F - inverse * inverse * inverse;
     }
     
     /**
@@ -184,7 +264,11 @@ public class UIUtils {
      * Smooth acceleration and deceleration.
      */
     public static float easeInOutCubic(float t) {
-        return t < 0.5F ? 4.0F * t * t * t : 1.0F - (float)Math.pow(-2.0 * t + 2.0, 3) / 2.0F;
+        if (t < 0.5F) {
+            return 4.0F * t * t * t;
+        }
+        float inverse = -2.0F * t + 2.0F;
+        return 1.0F - inverse * inverse * inverse / 2.0F;
     }
     
     /**
@@ -3,7 +3,14 @@ package com.pop.pvp.ui;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.FontRenderer;
 import net.minecraft.client.gui.ScaledResolution;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.shader.Framebuffer;
 import net.minecraft.util.EnumChatFormatting;
+import org.lwjgl.opengl.GL11;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +21,14 @@ import java.util.List;
  * 
  * Why: Windows provide clear visual separation and organization.
  * Draggable windows allow users to customize their layout.
+ * 
+ * Each window draws itself into its own framebuffer and only redraws that when
+ * something in it changed; other frames are a single textured quad. Call
+ * {@link #releaseFramebuffer()} when the window is thrown away.
+ * 
+ * Children scroll inside the content area, clipped with a scissor. Every child is
+ * measured when the layout changes, but only the rows in view are placed, updated,
+ * hit-tested and drawn, so a frame costs the same however many modules there are.
  */
 public class Window extends Component {
     private String title;
@@ -26,6 +41,20 @@ public class Window extends Component {
     private boolean minimized = false;
     private Animation minimizeAnimation;
     
+    // Cached contents, and what they were drawn with
+    private Framebuffer framebuffer;
+    private int framebufferScale;
+    private int cachedX, cachedY, cachedWidth, cachedHeight;
+    private boolean cachedButtonHovered, cachedHandleHovered;
+    private boolean renderingToFramebuffer;
+    
+    // Child rows relative to the top of the content area, and the range [firstVisible, endVisible) in view
+    private int[] childTops = new int[0];
+    private int[] childHeights = new int[0];
+    private int contentHeight;
+    private int scrollOffset;
+    private int firstVisible, endVisible;
+    
     // Visual properties (Wurst/RusherHack style)
     private static final int CORNER_RADIUS = 2; // Smaller radius for cleaner look
     private static final int SHADOW_SIZE = 2;
@@ -35,13 +64,20 @@ public class Window extends Component {
     private static final int RESIZE_HANDLE_SIZE = 8; // Size of resize corner
     private static final int MIN_WIDTH = 200; // Increased to fit slider text
     private static final int MIN_HEIGHT = 100;
+    private static final int CHILD_SPACING = 6;
+    private static final int SCROLL_STEP = 20;
+    private static final int SCROLLBAR_WIDTH = 2;
+    private static final int NO_MOUSE = Integer.MIN_VALUE / 2; // Mouse position given to children when it is outside the viewport
+    private static final int BUTTON_SIZE = 10;
+    private static final int CACHE_MARGIN = SHADOW_SIZE + 2; // Room for the shadow's soft edge
+    private static final int CACHE_GROW_STEP = 64; // Framebuffer sizes round up to this many pixels
     
     public Window(int x, int y, int width, int height, String title, int accentColor) {
         super(x, y, width, height);
         this.title = title;
         this.children = new ArrayList<Component>();
         this.accentColor = accentColor;
-        this.minimizeAnimation = new Animation(1.0F, 10.0F);
+        this.minimizeAnimation = createAnimation(1.0F, 10.0F);
     }
     
     @Override
@@ -49,16 +85,20 @@ public class Window extends Component {
         if (!visible) return;
         
         super.update(mouseX, mouseY, partialTicks);
-        minimizeAnimation.update(partialTicks);
         
         // Update drag position
         if (dragging) {
-            this.x = mouseX - dragOffsetX;
-            this.y = mouseY - dragOffsetY;
+            int newX = mouseX - dragOffsetX;
+            int newY = mouseY - dragOffsetY;
             // Clamp to screen bounds
             ScaledResolution scaled = new ScaledResolution(Minecraft.getMinecraft());
-            this.x = Math.max(0, Math.min(this.x, scaled.getScaledWidth() - width));
-            this.y = Math.max(0, Math.min(this.y, scaled.getScaledHeight() - (minimized ? MINIMIZED_HEIGHT : height)));
+            newX = Math.max(0, Math.min(newX, scaled.getScaledWidth() - width));
+            newY = Math.max(0, Math.min(newY, scaled.getScaledHeight() - (minimized ? MINIMIZED_HEIGHT : height)));
+            if (newX != x || newY != y) {
+                // Moving doesn't change the layout, so shift it instead of arranging again
+                translate(newX - x, newY - y);
+                markDirty();
+            }
         }
         
         // Update resize
@@ -66,32 +106,175 @@ public class Window extends Component {
             int newWidth = mouseX - x + resizeOffsetX;
             int newHeight = mouseY - y + resizeOffsetY;
             // Clamp to minimum size
-            this.width = Math.max(MIN_WIDTH, newWidth);
-            this.height = Math.max(MIN_HEIGHT, newHeight);
+            newWidth = Math.max(MIN_WIDTH, newWidth);
+            newHeight = Math.max(MIN_HEIGHT, newHeight);
             // Clamp to screen bounds
             ScaledResolution scaled = new ScaledResolution(Minecraft.getMinecraft());
-            this.width = Math.min(this.width, scaled.getScaledWidth() - x);
-            this.height = Math.min(this.height, scaled.getScaledHeight() - y);
+            setSize(Math.min(newWidth, scaled.getScaledWidth() - x), Math.min(newHeight, scaled.getScaledHeight() - y));
         }
         
-        // Update children if not minimized
+        int currentHeight = getCurrentHeight();
+        ensureLayout(currentHeight);
+        
+        // Update children in view if not minimized
         float minimizeProgress = minimizeAnimation.getValue();
         if (minimizeProgress > 0.1F) {
-            for (Component child : children) {
-                child.update(mouseX, mouseY, partialTicks);
+            int childMouseY = isMouseOverContent(mouseX, mouseY, currentHeight) ? mouseY : NO_MOUSE;
+            for (int i = firstVisible; i < endVisible; i++) {
+                updateChild(children.get(i), mouseX, childMouseY, partialTicks);
             }
         }
     }
     
+    /**
+     * Measures the children if anything invalidated the layout since the last pass,
+     * then places the rows currently in view.
+     * The window is the root of its tree, so nothing arranges it from outside.
+     */
+    private void ensureLayout(int currentHeight) {
+        if (!layoutValid) {
+            arrangeChildren();
+            layoutValid = true;
+        }
+        placeVisibleChildren(currentHeight);
+    }
+    
+    /**
+     * Measures every child into row offsets. Placing them is left to {@link #placeVisibleChildren}.
+     */
+    @Override
+    protected void arrangeChildren() {
+        int count = children.size();
+        if (childTops.length != count) {
+            childTops = new int[count];
+            childHeights = new int[count];
+        }
+        int top = PADDING;
+        for (int i = 0; i < count; i++) {
+            childTops[i] = top;
+            childHeights[i] = children.get(i).measure(width - PADDING * 2);
+            top += childHeights[i] + CHILD_SPACING;
+        }
+        contentHeight = (count > 0 ? top - CHILD_SPACING : top) + PADDING;
+    }
+    
+    /**
+     * Finds the rows intersecting the viewport and arranges just those.
+     * Rows already in place return from arrange immediately.
+     */
+    private void placeVisibleChildren(int currentHeight) {
+        int clamped = Math.max(0, Math.min(scrollOffset, getMaxScroll()));
+        if (clamped != scrollOffset) {
+            scrollOffset = clamped;
+            markDirty();
+        }
+        
+        int viewTop = scrollOffset;
+        int viewBottom = scrollOffset + Math.max(0, currentHeight - HEADER_HEIGHT);
+        
+        // Binary search for the first row ending below the top of the view
+        int low = 0;
+        int high = children.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (childTops[mid] + childHeights[mid] <= viewTop) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        
+        int contentTop = y + HEADER_HEIGHT - scrollOffset;
+        int end = low;
+        while (end < children.size() && childTops[end] < viewBottom) {
+            children.get(end).arrange(x + PADDING, contentTop + childTops[end], width - PADDING * 2);
+            end++;
+        }
+        firstVisible = low;
+        endVisible = end;
+    }
+    
+    private int getMaxScroll() {
+        return Math.max(0, contentHeight - (height - HEADER_HEIGHT));
+    }
+    
+    private boolean isMouseOverContent(int mouseX, int mouseY, int currentHeight) {
+        return mouseX >= x && mouseX <= x + width && mouseY >= y + HEADER_HEIGHT && mouseY < y + currentHeight;
+    }
+    
+    @Override
+    protected void translate(int dx, int dy) {
+        super.translate(dx, dy);
+        // Rows out of view are placed when they scroll in
+        for (int i = firstVisible; i < endVisible; i++) {
+            children.get(i).translate(dx, dy);
+        }
+    }
+    
+    @Override
+    public boolean needsUpdate() {
+        if (super.needsUpdate() || dragging || resizing) {
+            return true;
+        }
+        for (int i = firstVisible; i < endVisible; i++) {
+            if (children.get(i).needsUpdate()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Scrolls the content by one step per wheel notch. Returns true if the mouse was over this window.
+     */
+    public boolean mouseScrolled(int mouseX, int mouseY, int amount) {
+        if (!visible || minimized || !isMouseOver(mouseX, mouseY)) return false;
+        
+        int target = Math.max(0, Math.min(scrollOffset - Integer.signum(amount) * SCROLL_STEP, getMaxScroll()));
+        if (target != scrollOffset) {
+            scrollOffset = target;
+            markDirty(); // The visible rows are placed again on the next pass
+        }
+        return true;
+    }
+    
     @Override
     public void render(int mouseX, int mouseY, float partialTicks) {
         if (!visible) return;
         
-        float minimizeProgress = minimizeAnimation.getValue();
-        int currentHeight = (int)(height * minimizeProgress + MINIMIZED_HEIGHT * (1.0F - minimizeProgress));
-        
+        int currentHeight = getCurrentHeight();
         if (currentHeight < HEADER_HEIGHT) return;
         
+        ensureLayout(currentHeight);
+        if (!OpenGlHelper.isFramebufferEnabled()) {
+            renderContents(mouseX, mouseY, partialTicks, currentHeight);
+            clearDirty();
+            return;
+        }
+        
+        int scale = new ScaledResolution(Minecraft.getMinecraft()).getScaleFactor();
+        boolean buttonHovered = isMouseOverMinimizeButton(mouseX, mouseY);
+        boolean handleHovered = isMouseOverResizeHandle(mouseX, mouseY, currentHeight);
+        if (dirty || framebuffer == null || scale != framebufferScale ||
+            x != cachedX || y != cachedY || width != cachedWidth || currentHeight != cachedHeight ||
+            buttonHovered != cachedButtonHovered || handleHovered != cachedHandleHovered) {
+            cachedX = x;
+            cachedY = y;
+            cachedWidth = width;
+            cachedHeight = currentHeight;
+            cachedButtonHovered = buttonHovered;
+            cachedHandleHovered = handleHovered;
+            renderToFramebuffer(mouseX, mouseY, partialTicks, currentHeight, scale);
+            clearDirty();
+        }
+        drawFramebuffer(currentHeight);
+    }
+    
+    /**
+     * Draws the window straight to the current target.
+     */
+    private void renderContents(int mouseX, int mouseY, float partialTicks, int currentHeight) {
+        float minimizeProgress = minimizeAnimation.getValue();
         FontRenderer font = Minecraft.getMinecraft().fontRendererObj;
         
         // Draw shadow (subtle)
@@ -125,7 +308,7 @@ public class Window extends Component {
         // Draw title (clean, no bold - Wurst style)
         int titleX = x + PADDING;
         int titleY = y + (HEADER_HEIGHT - 8) / 2;
-        font.drawString(
+        UIUtils.drawString(font,
             title,
             titleX,
             titleY,
@@ -133,10 +316,10 @@ public class Window extends Component {
         );
         
         // Draw minimize button (minimal style)
-        int buttonSize = 10;
+        int buttonSize = BUTTON_SIZE;
         int buttonX = x + width - PADDING - buttonSize;
         int buttonY = y + (HEADER_HEIGHT - buttonSize) / 2;
-        boolean buttonHovered = isMouseOverButton(mouseX, mouseY, buttonX, buttonY, buttonSize);
+        boolean buttonHovered = isMouseOverMinimizeButton(mouseX, mouseY);
         int buttonColor = buttonHovered ? 
             UIUtils.color(200, (accentColor >> 16) & 255, (accentColor >> 8) & 255, accentColor & 255) :
             UIUtils.color(150, 40, 40, 40);
@@ -144,32 +327,38 @@ public class Window extends Component {
         
         // Draw minimize icon (- or +)
         String icon = minimized ? "+" : "-";
-        int iconWidth = font.getStringWidth(icon);
+        int iconWidth = TextMetrics.getWidth(icon);
         int iconColor = buttonHovered ? 0xFFFFFF : 0xCCCCCC;
-        font.drawString(icon, buttonX + (buttonSize - iconWidth) / 2, buttonY + 1, iconColor);
+        UIUtils.drawString(font, icon, buttonX + (buttonSize - iconWidth) / 2, buttonY + 1, iconColor);
         
         // Draw children with fade animation
         if (minimizeProgress > 0.1F && currentHeight > HEADER_HEIGHT) {
-            float childAlpha = Math.min(1.0F, (minimizeProgress - 0.1F) / 0.9F);
-            int contentY = y + HEADER_HEIGHT + PADDING;
-            int contentHeight = currentHeight - HEADER_HEIGHT - PADDING * 2;
+            // Clip to the content area; rows in view are already placed
+            int viewHeight = currentHeight - HEADER_HEIGHT - 1; // Inside the bottom border
+            DrawQueue.flush();
+            beginScissor(x, y + HEADER_HEIGHT, width, viewHeight);
+            for (int i = firstVisible; i < endVisible; i++) {
+                children.get(i).render(mouseX, mouseY, partialTicks);
+            }
             
-            for (Component child : children) {
-                if (contentY + child.getHeight() > y + currentHeight - PADDING) break;
-                
-                child.setPosition(x + PADDING, contentY);
-                child.setSize(width - PADDING * 2, child.getHeight());
-                child.render(mouseX, mouseY, partialTicks);
-                contentY += child.getHeight() + 6; // Spacing between children
+            // Scrollbar when the content overflows
+            int maxScroll = getMaxScroll();
+            if (maxScroll > 0) {
+                int fullViewHeight = height - HEADER_HEIGHT;
+                int thumbHeight = Math.max(8, fullViewHeight * fullViewHeight / contentHeight);
+                int thumbY = y + HEADER_HEIGHT + (fullViewHeight - thumbHeight) * scrollOffset / maxScroll;
+                int thumbColor = UIUtils.color(150, (accentColor >> 16) & 255, (accentColor >> 8) & 255, accentColor & 255);
+                UIUtils.drawRect(x + width - 2 - SCROLLBAR_WIDTH, thumbY, x + width - 2, thumbY + thumbHeight, thumbColor);
             }
+            DrawQueue.flush();
+            GL11.glDisable(GL11.GL_SCISSOR_TEST);
         }
         
         // Draw resize handle (bottom-right corner) if not minimized
         if (!minimized && currentHeight > HEADER_HEIGHT) {
             int handleX = x + width - RESIZE_HANDLE_SIZE;
             int handleY = y + currentHeight - RESIZE_HANDLE_SIZE;
-            boolean handleHovered = mouseX >= handleX && mouseX <= x + width &&
-                                   mouseY >= handleY && mouseY <= y + currentHeight;
+            boolean handleHovered = isMouseOverResizeHandle(mouseX, mouseY, currentHeight);
             
             // Draw resize handle (small square)
             int handleColor = handleHovered ? 
@@ -179,6 +368,154 @@ public class Window extends Component {
         }
     }
     
+    /**
+     * Redraws the contents into this window's framebuffer, at the window's position
+     * offset by the cache margin and at the screen's pixel density.
+     */
+    private void renderToFramebuffer(int mouseX, int mouseY, float partialTicks, int currentHeight, int scale) {
+        // Sized for the full height, so minimizing and restoring never reallocates
+        int pixelWidth = (width + CACHE_MARGIN * 2) * scale;
+        int pixelHeight = (height + CACHE_MARGIN * 2) * scale;
+        if (framebuffer == null || scale != framebufferScale ||
+            pixelWidth > framebuffer.framebufferWidth || pixelHeight > framebuffer.framebufferHeight) {
+            int allocWidth = roundUp(pixelWidth);
+            int allocHeight = roundUp(pixelHeight);
+            if (framebuffer == null) {
+                framebuffer = new Framebuffer(allocWidth, allocHeight, false);
+                framebuffer.setFramebufferColor(0.0F, 0.0F, 0.0F, 0.0F);
+            } else {
+                framebuffer.createBindFramebuffer(allocWidth, allocHeight);
+            }
+            framebufferScale = scale;
+        }
+        
+        DrawQueue.flush(); // Whatever is queued belongs on the screen, not in here
+        framebuffer.framebufferClear();
+        framebuffer.bindFramebuffer(true);
+        
+        GlStateManager.matrixMode(GL11.GL_PROJECTION);
+        GlStateManager.pushMatrix();
+        GlStateManager.loadIdentity();
+        GlStateManager.ortho(0.0D, (double)framebuffer.framebufferWidth / scale,
+            (double)framebuffer.framebufferHeight / scale, 0.0D, 1000.0D, 3000.0D);
+        GlStateManager.matrixMode(GL11.GL_MODELVIEW);
+        GlStateManager.pushMatrix();
+        GlStateManager.loadIdentity();
+        GlStateManager.translate((float)(CACHE_MARGIN - x), (float)(CACHE_MARGIN - y), -2000.0F);
+        
+        renderingToFramebuffer = true;
+        renderContents(mouseX, mouseY, partialTicks, currentHeight);
+        DrawQueue.flush();
+        renderingToFramebuffer = false;
+        
+        GlStateManager.popMatrix();
+        GlStateManager.matrixMode(GL11.GL_PROJECTION);
+        GlStateManager.popMatrix();
+        GlStateManager.matrixMode(GL11.GL_MODELVIEW);
+        Minecraft.getMinecraft().getFramebuffer().bindFramebuffer(true);
+    }
+    
+    /**
+     * Draws the cached contents as one quad.
+     */
+    private void drawFramebuffer(int currentHeight) {
+        float left = x - CACHE_MARGIN;
+        float top = y - CACHE_MARGIN;
+        float right = x + width + CACHE_MARGIN;
+        float bottom = y + currentHeight + CACHE_MARGIN;
+        
+        // Framebuffer rows run bottom-up and the drawn area is its top-left corner
+        float maxU = (float)((width + CACHE_MARGIN * 2) * framebufferScale) / framebuffer.framebufferTextureWidth;
+        float topV = (float)framebuffer.framebufferHeight / framebuffer.framebufferTextureHeight;
+        float bottomV = topV - (float)((currentHeight + CACHE_MARGIN * 2) * framebufferScale) / framebuffer.framebufferTextureHeight;
+        
+        // Draw what is queued first; it belongs below this window, which bypasses the queue
+        DrawQueue.flush();
+        
+        RenderState.push();
+        RenderState.set(RenderState.BLEND | RenderState.TEXTURE_2D, RenderState.ALPHA);
+        RenderState.blendPremultiplied();
+        GlStateManager.color(1.0F, 1.0F, 1.0F, 1.0F);
+        framebuffer.bindFramebufferTexture();
+        
+        Tessellator tessellator = Tessellator.getInstance();
+        WorldRenderer worldrenderer = tessellator.getWorldRenderer();
+        worldrenderer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
+        worldrenderer.pos(left, bottom, 0.0D).tex(0.0D, bottomV).endVertex();
+        worldrenderer.pos(right, bottom, 0.0D).tex(maxU, bottomV).endVertex();
+        worldrenderer.pos(right, top, 0.0D).tex(maxU, topV).endVertex();
+        worldrenderer.pos(left, top, 0.0D).tex(0.0D, topV).endVertex();
+        tessellator.draw();
+        
+        framebuffer.unbindFramebufferTexture();
+        RenderState.blendNormal();
+        RenderState.pop();
+    }
+    
+    /**
+     * Clips to a GUI-space rectangle on whichever target is being drawn to.
+     * Flush the draw queue before this and before disabling the test.
+     */
+    private void beginScissor(int left, int top, int clipWidth, int clipHeight) {
+        int scale;
+        int pixelX;
+        int pixelY;
+        if (renderingToFramebuffer) {
+            scale = framebufferScale;
+            pixelX = (left - x + CACHE_MARGIN) * scale;
+            pixelY = framebuffer.framebufferHeight - (top + clipHeight - y + CACHE_MARGIN) * scale;
+        } else {
+            Minecraft mc = Minecraft.getMinecraft();
+            scale = new ScaledResolution(mc).getScaleFactor();
+            pixelX = left * scale;
+            pixelY = mc.displayHeight - (top + clipHeight) * scale;
+        }
+        GL11.glEnable(GL11.GL_SCISSOR_TEST);
+        GL11.glScissor(pixelX, pixelY, Math.max(0, clipWidth * scale), Math.max(0, clipHeight * scale));
+    }
+    
+    private static int roundUp(int pixels) {
+        return (pixels + CACHE_GROW_STEP - 1) / CACHE_GROW_STEP * CACHE_GROW_STEP;
+    }
+    
+    /**
+     * Frees the cached contents. The window draws again if used afterwards.
+     */
+    public void releaseFramebuffer() {
+        if (framebuffer != null) {
+            framebuffer.deleteFramebuffer();
+            framebuffer = null;
+        }
+    }
+    
+    @Override
+    protected void clearDirty() {
+        super.clearDirty();
+        for (Component child : children) {
+            if (child.isDirty()) {
+                child.clearDirty();
+            }
+        }
+    }
+    
+    private int getCurrentHeight() {
+        float minimizeProgress = minimizeAnimation.getValue();
+        return (int)(height * minimizeProgress + MINIMIZED_HEIGHT * (1.0F - minimizeProgress));
+    }
+    
+    private boolean isMouseOverMinimizeButton(int mouseX, int mouseY) {
+        int buttonX = x + width - PADDING - BUTTON_SIZE;
+        int buttonY = y + (HEADER_HEIGHT - BUTTON_SIZE) / 2;
+        return isMouseOverButton(mouseX, mouseY, buttonX, buttonY, BUTTON_SIZE);
+    }
+    
+    private boolean isMouseOverResizeHandle(int mouseX, int mouseY, int currentHeight) {
+        int handleX = x + width - RESIZE_HANDLE_SIZE;
+        int handleY = y + currentHeight - RESIZE_HANDLE_SIZE;
+        return mouseX >= handleX && mouseX <= x + width &&
+               mouseY >= handleY && mouseY <= y + currentHeight;
+    }
+    
     private boolean isMouseOverButton(int mouseX, int mouseY, int buttonX, int buttonY, int buttonSize) {
         return mouseX >= buttonX && mouseX <= buttonX + buttonSize && 
                mouseY >= buttonY && mouseY <= buttonY + buttonSize;
@@ -188,8 +525,7 @@ public class Window extends Component {
     public boolean mouseClicked(int mouseX, int mouseY, int mouseButton) {
         if (!visible || !isMouseOver(mouseX, mouseY)) return false;
         
-        float minimizeProgress = minimizeAnimation.getValue();
-        int currentHeight = (int)(height * minimizeProgress + MINIMIZED_HEIGHT * (1.0F - minimizeProgress));
+        int currentHeight = getCurrentHeight();
         
         // Check resize handle (bottom-right corner)
         if (!minimized && currentHeight > HEADER_HEIGHT) {
@@ -207,11 +543,7 @@ public class Window extends Component {
         }
         
         // Check minimize button
-        int buttonSize = 10;
-        int buttonX = x + width - PADDING - buttonSize;
-        int buttonY = y + (HEADER_HEIGHT - buttonSize) / 2;
-        
-        if (isMouseOverButton(mouseX, mouseY, buttonX, buttonY, buttonSize)) {
+        if (isMouseOverMinimizeButton(mouseX, mouseY)) {
             if (mouseButton == 0) {
                 toggleMinimize();
                 Minecraft.getMinecraft().thePlayer.playSound("random.click", 0.2F, 1.0F);
@@ -229,10 +561,10 @@ public class Window extends Component {
             }
         }
         
-        // Check children
-        if (!minimized) {
-            for (Component child : children) {
-                if (child.mouseClicked(mouseX, mouseY, mouseButton)) {
+        // Check children in view
+        if (!minimized && isMouseOverContent(mouseX, mouseY, currentHeight)) {
+            for (int i = firstVisible; i < endVisible; i++) {
+                if (children.get(i).mouseClicked(mouseX, mouseY, mouseButton)) {
                     return true;
                 }
             }
@@ -252,19 +584,27 @@ public class Window extends Component {
     
     public void addChild(Component component) {
         children.add(component);
+        adopt(component);
     }
     
     public void removeChild(Component component) {
-        children.remove(component);
+        if (children.remove(component)) {
+            component.parent = null;
+            endVisible = Math.min(endVisible, children.size()); // Until the next pass recomputes the range
+            firstVisible = Math.min(firstVisible, endVisible);
+            invalidateLayout();
+        }
     }
     
     public void toggleMinimize() {
         minimized = !minimized;
+        markDirty();
         minimizeAnimation.animateTo(minimized ? 0.0F : 1.0F);
     }
     
     public void setMinimized(boolean minimized) {
         this.minimized = minimized;
+        markDirty();
         minimizeAnimation.animateTo(minimized ? 0.0F : 1.0F);
     }
     
@@ -272,8 +612,17 @@ public class Window extends Component {
         return minimized;
     }
     
+    public boolean isDragging() {
+        return dragging;
+    }
+    
+    public boolean isResizing() {
+        return resizing;
+    }
+    
     public void setAccentColor(int color) {
         this.accentColor = color;
+        markDirty();
     }
     
     public String getTitle() {